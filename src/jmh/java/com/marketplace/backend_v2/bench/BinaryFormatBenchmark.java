@@ -0,0 +1,100 @@
+package com.marketplace.backend_v2.bench;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.marketplace.backend_v2.cache.ProductoCache;
+import com.marketplace.backend_v2.config.ProductoCacheProperties;
+import com.marketplace.backend_v2.dto.ApiResponse;
+import com.marketplace.backend_v2.dto.CursorPage;
+import com.marketplace.backend_v2.dto.ProductoDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificación y decodificación de una página de productos en JSON, Smile y CBOR, con mappers
+ * configurados como los conversores de BinaryFormatsConfig. {@code encodeFragmentos} es el camino
+ * real de ProductoController: en JSON copia los bytes cacheados y en los formatos binarios serializa
+ * el DTO que acompaña a cada fragmento. El tamaño de cada respuesta se imprime en el setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    private static final TypeReference<ApiResponse<List<ProductoDTO>>> PAGINA = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"100"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private ApiResponse<List<ProductoDTO>> pagina;
+    private List<ProductoDTO> productos;
+    private ProductoCache productoCache;
+    private byte[] codificada;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory(format))
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        productos = CatalogoFixtures.productoDtos(size);
+        pagina = ApiResponse.page(new CursorPage<>(productos, "MTAw"));
+        codificada = mapper.writeValueAsBytes(pagina);
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        productoCache = new ProductoCache(new ProductoCacheProperties(null, null, null, null), json);
+        productoCache.getJson(productos);
+        System.out.printf("%n%s, %d productos: %d bytes%n", format, size, codificada.length);
+    }
+
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "smile" -> SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(ApiResponse.page(new CursorPage<>(productos, "MTAw")));
+    }
+
+    @Benchmark
+    public byte[] encodeFragmentos() throws IOException {
+        return mapper.writeValueAsBytes(ApiResponse.page(new CursorPage<>(productoCache.getJson(productos), "MTAw")));
+    }
+
+    @Benchmark
+    public ApiResponse<List<ProductoDTO>> decode() throws IOException {
+        return mapper.readValue(codificada, PAGINA);
+    }
+}
@@ -0,0 +1,65 @@
+package com.marketplace.backend_v2.bench;
+
+import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.model.Producto;
+import com.marketplace.backend_v2.model.Vendedor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de catálogo con tamaños de texto parecidos a los reales (descripción, URL de imagen),
+ * para que el coste de serialización no quede infravalorado.
+ */
+final class CatalogoFixtures {
+
+    private static final String[] CATEGORIAS = {"electronica", "hogar", "libros", "ropa", "deportes"};
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 3, 14, 10, 30, 15, 123_456_000);
+
+    private CatalogoFixtures() {
+    }
+
+    static List<Vendedor> vendedores(int cantidad) {
+        List<Vendedor> vendedores = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            vendedores.add(Vendedor.builder()
+                    .id((long) i + 1)
+                    .nombre("Vendedor " + i)
+                    .email("vendedor" + i + "@marketplace.com")
+                    .telefono("+51 987 654 " + String.format("%03d", i % 1000))
+                    .direccion("Av. Principal " + i + ", Lima")
+                    .rucDni("20" + String.format("%09d", i))
+                    .fechaCreacion(FECHA)
+                    .version(3L)
+                    .build());
+        }
+        return vendedores;
+    }
+
+    static List<Producto> productos(int cantidad) {
+        List<Vendedor> vendedores = vendedores(Math.max(1, cantidad / 20));
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            productos.add(Producto.builder()
+                    .id((long) i + 1)
+                    .nombre("Producto de prueba número " + i)
+                    .descripcion("Descripción del producto " + i + " con detalles de materiales, medidas "
+                            + "y condiciones de envío para que el texto tenga un tamaño realista.")
+                    .precio(new BigDecimal("199.90").add(BigDecimal.valueOf(i, 2)))
+                    .stock(i % 50)
+                    .vendedor(vendedores.get(i % vendedores.size()))
+                    .categoria(CATEGORIAS[i % CATEGORIAS.length])
+                    .imagenUrl("https://cdn.marketplace.com/productos/" + i + "/principal.jpg")
+                    .fechaCreacion(FECHA)
+                    .version(1L)
+                    .build());
+        }
+        return productos;
+    }
+
+    static List<ProductoDTO> productoDtos(int cantidad) {
+        return productos(cantidad).stream().map(ProductoDTO::fromEntity).toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.marketplace.backend_v2.bench;
+
+import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.dto.VendedorDTO;
+import com.marketplace.backend_v2.model.Producto;
+import com.marketplace.backend_v2.model.Vendedor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de convertir entidades a DTO, tal como lo hacen los servicios, y de los builders de Lombok
+ * frente al constructor canónico del record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private List<Producto> productos;
+    private List<Vendedor> vendedores;
+
+    @Setup
+    public void setup() {
+        productos = CatalogoFixtures.productos(size);
+        vendedores = CatalogoFixtures.vendedores(size);
+    }
+
+    @Benchmark
+    public List<ProductoDTO> productoFromEntity() {
+        return productos.stream().map(ProductoDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    public List<VendedorDTO> vendedorFromEntity() {
+        return vendedores.stream().map(VendedorDTO::fromEntity).toList();
+    }
+
+    // Mismos campos que fromEntity, sin pasar por ProductoDTO.builder()
+    @Benchmark
+    public List<ProductoDTO> productoCanonicalConstructor() {
+        List<ProductoDTO> dtos = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            Vendedor vendedor = producto.getVendedor();
+            dtos.add(new ProductoDTO(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                    producto.getPrecio(), producto.getStock(), vendedor.getId(), producto.getCategoria(),
+                    producto.getImagenUrl(), producto.getFechaCreacion(), vendedor.getNombre(),
+                    vendedor.getEmail(), producto.getVersion(), vendedor.getVersion()));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<Producto> productoEntityBuilder() {
+        List<Producto> copias = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            copias.add(Producto.builder()
+                    .nombre(producto.getNombre())
+                    .descripcion(producto.getDescripcion())
+                    .precio(producto.getPrecio())
+                    .stock(producto.getStock())
+                    .vendedor(producto.getVendedor())
+                    .categoria(producto.getCategoria())
+                    .imagenUrl(producto.getImagenUrl())
+                    .activo(true)
+                    .build());
+        }
+        return copias;
+    }
+}
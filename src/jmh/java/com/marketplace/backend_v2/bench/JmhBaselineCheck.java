@@ -0,0 +1,79 @@
+package com.marketplace.backend_v2.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara un resultado JMH en JSON con la línea base versionada. El tiempo por operación depende
+ * de la máquina y admite una tolerancia amplia; los bytes asignados por operación
+ * ({@code gc.alloc.rate.norm}) son casi deterministas y son la señal de regresión más fiable.
+ *
+ * <p>Uso: {@code JmhBaselineCheck <baseline.json> <resultado.json> [tolerancia-tiempo] [tolerancia-alloc]}
+ */
+public final class JmhBaselineCheck {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    // Margen absoluto para que variaciones de unos pocos bytes en listas de 1 elemento no cuenten
+    private static final double ALLOC_SLACK_BYTES = 64;
+
+    private JmhBaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: JmhBaselineCheck <baseline.json> <resultado.json> [tolerancia-tiempo] [tolerancia-alloc]");
+            System.exit(2);
+        }
+        double toleranciaTiempo = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+        double toleranciaAlloc = args.length > 3 ? Double.parseDouble(args[3]) : 0.10;
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> actual = index(mapper.readTree(new File(args[1])));
+
+        int regresiones = 0;
+        System.out.printf("%-70s %12s %12s %14s %14s%n", "benchmark", "base", "actual", "base B/op", "actual B/op");
+        for (Map.Entry<String, JsonNode> entry : actual.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-70s %12s%n", entry.getKey(), "(nuevo)");
+                continue;
+            }
+            double tiempoBase = base.path("primaryMetric").path("score").asDouble();
+            double tiempo = entry.getValue().path("primaryMetric").path("score").asDouble();
+            double allocBase = allocNorm(base);
+            double alloc = allocNorm(entry.getValue());
+
+            boolean lento = tiempo > tiempoBase * (1 + toleranciaTiempo);
+            boolean asigna = !Double.isNaN(allocBase) && alloc > allocBase * (1 + toleranciaAlloc) + ALLOC_SLACK_BYTES;
+            System.out.printf("%-70s %12.3f %12.3f %14.0f %14.0f%s%n", entry.getKey(), tiempoBase, tiempo,
+                    allocBase, alloc, lento || asigna ? "  <-- REGRESIÓN" : "");
+            if (lento || asigna) {
+                regresiones++;
+            }
+        }
+        if (regresiones > 0) {
+            System.err.println(regresiones + " benchmark(s) por encima de la línea base");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode resultados) {
+        Map<String, JsonNode> index = new LinkedHashMap<>();
+        for (JsonNode resultado : resultados) {
+            String nombre = resultado.path("benchmark").asText().replace("com.marketplace.backend_v2.bench.", "");
+            index.put(nombre + resultado.path("params"), resultado);
+        }
+        return index;
+    }
+
+    private static double allocNorm(JsonNode resultado) {
+        JsonNode metrica = resultado.path("secondaryMetrics").path(ALLOC_NORM);
+        return metrica.isMissingNode() ? Double.NaN : metrica.path("score").asDouble();
+    }
+}
@@ -0,0 +1,167 @@
+package com.marketplace.backend_v2.bench;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del logging en el hilo de la petición para un {@code GET /productos/{id}}, con varios hilos
+ * compitiendo por el appender como en Tomcat:
+ * <ul>
+ *     <li>{@code sincrono}: la configuración anterior; línea del controlador y del servicio en INFO
+ *     contra un appender de consola síncrono, más el SQL de {@code show-sql} por un PrintStream.</li>
+ *     <li>{@code asincrono}: las líneas del servicio quedan en DEBUG (desactivado) y cada petición
+ *     encola un registro de access log en un AsyncAppender, sin muestreo.</li>
+ *     <li>{@code asincronoMuestreado}: igual, con la tasa de muestreo de lecturas por defecto (1 %).</li>
+ * </ul>
+ * Por defecto se escribe en {@code /dev/null}: se mide formateo, bloqueo y llamadas al sistema, no el disco.
+ * El hilo del AsyncAppender compite por CPU con los de petición, así que con pocos núcleos la ventaja
+ * de {@code asincrono} sobre {@code sincrono} se reduce; la de {@code asincronoMuestreado} no.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String CONSOLE_PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p 4242 --- [%15.15t] %-40.40logger{39} : %m%n";
+    private static final String ACCESS_PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p ACCESS %kvp{NONE}%n";
+    private static final String SQL = "Hibernate: select p1_0.id,p1_0.nombre,p1_0.descripcion,p1_0.precio,"
+            + "p1_0.stock,v1_0.id,p1_0.categoria,p1_0.imagen_url,p1_0.fecha_creacion,v1_0.nombre,v1_0.email,"
+            + "p1_0.version,v1_0.version from productos p1_0 join vendedores v1_0 on v1_0.id=p1_0.vendedor_id "
+            + "where p1_0.id=?";
+    private static final double TASA_LECTURAS = 0.01;
+
+    @Param({"/dev/null"})
+    private String destino;
+
+    private LoggerContext context;
+    private PrintStream showSql;
+    private Logger controladorSincrono;
+    private Logger servicioSincrono;
+    private Logger servicioAsincrono;
+    private Logger access;
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        context = new LoggerContext();
+        context.start();
+
+        Appender<ILoggingEvent> consola = salida("CONSOLE", CONSOLE_PATTERN);
+        controladorSincrono = logger("com.marketplace.backend_v2.controller.ProductoController", Level.INFO, consola);
+        servicioSincrono = logger("com.marketplace.backend_v2.service.ProductoService", Level.INFO, consola);
+        // Mismo logger con el nivel actual: las trazas por llamada están en DEBUG
+        servicioAsincrono = logger("servicio.asincrono", Level.INFO, asincrono("ASYNC_CONSOLE", salida("CONSOLE2", CONSOLE_PATTERN), true));
+        access = logger("ACCESS", Level.INFO, asincrono("ASYNC_ACCESS", salida("ACCESS_CONSOLE", ACCESS_PATTERN), false));
+
+        // System.out: PrintStream con autoflush, que es lo que usa show-sql
+        showSql = new PrintStream(new BufferedOutputStream(new FileOutputStream(destino)), true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+        showSql.close();
+    }
+
+    @Benchmark
+    public void sincrono() {
+        long id = ThreadLocalRandom.current().nextLong(1, 100_000);
+        controladorSincrono.info("GET /productos/{} - Obteniendo producto por ID", id);
+        servicioSincrono.info("Buscando producto con ID: {}", id);
+        showSql.println(SQL);
+    }
+
+    @Benchmark
+    public void asincrono() {
+        peticion(1.0);
+    }
+
+    @Benchmark
+    public void asincronoMuestreado() {
+        peticion(TASA_LECTURAS);
+    }
+
+    private void peticion(double tasa) {
+        long inicio = System.nanoTime();
+        long id = ThreadLocalRandom.current().nextLong(1, 100_000);
+        servicioAsincrono.debug("Buscando producto con ID: {}", id);
+        // Mismo registro que AccessLogFilter
+        if (tasa < 1.0 && ThreadLocalRandom.current().nextDouble() >= tasa) {
+            return;
+        }
+        access.atInfo()
+                .addKeyValue("metodo", "GET")
+                .addKeyValue("ruta", "/productos/{id}")
+                .addKeyValue("estado", 200)
+                .addKeyValue("us", (System.nanoTime() - inicio) / 1_000)
+                .addKeyValue("muestra", tasa)
+                .log();
+    }
+
+    private Logger logger(String name, Level level, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private Appender<ILoggingEvent> salida(String name, String pattern) throws FileNotFoundException {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(pattern);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(new FileOutputStream(destino));
+        appender.start();
+        return appender;
+    }
+
+    // Configuración de logback-spring.xml: cola acotada, nunca bloquea
+    private Appender<ILoggingEvent> asincrono(String name, Appender<ILoggingEvent> destino, boolean descartarInfo) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        if (!descartarInfo) {
+            appender.setDiscardingThreshold(0);
+        }
+        appender.addAppender(destino);
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,72 @@
+package com.marketplace.backend_v2.bench;
+
+import com.marketplace.backend_v2.exception.DomainException;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tráfico de IDs inexistentes: la excepción se lanza en el servicio, atraviesa {@code depth} marcos
+ * (una petición a un controlador en Tomcat + Spring Security + Spring MVC ronda los 100-150) y se
+ * traduce a estado HTTP arriba.
+ * <ul>
+ *     <li>{@code runtimeException}: lo anterior, {@code RuntimeException} con traza completa y
+ *     el estado elegido buscando "no encontrado" en el mensaje.</li>
+ *     <li>{@code notFoundException}: excepción de dominio sin traza, estado por tipo.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    @Param({"10", "150"})
+    private int depth;
+
+    @Benchmark
+    public int runtimeException() {
+        long id = ThreadLocalRandom.current().nextLong(1, 1_000_000);
+        try {
+            return llamar(depth, id, false);
+        } catch (RuntimeException e) {
+            return e.getMessage().contains("no encontrado") ? 404 : 400;
+        }
+    }
+
+    @Benchmark
+    public int notFoundException() {
+        long id = ThreadLocalRandom.current().nextLong(1, 1_000_000);
+        try {
+            return llamar(depth, id, true);
+        } catch (NotFoundException e) {
+            return 404;
+        } catch (DomainException e) {
+            return 409;
+        }
+    }
+
+    // Recursión no inlineable en toda su profundidad: cada nivel es un marco real en la traza
+    private static int llamar(int restante, long id, boolean tipada) {
+        if (restante == 0) {
+            if (tipada) {
+                throw NotFoundException.producto(id);
+            }
+            throw new RuntimeException("Producto no encontrado con ID: " + id);
+        }
+        return llamar(restante - 1, id, tipada) + 1;
+    }
+}
@@ -0,0 +1,186 @@
+package com.marketplace.backend_v2.bench;
+
+import com.marketplace.backend_v2.search.ProductoSearchIndex;
+import com.marketplace.backend_v2.search.ProductoTexto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductoSearchIndex} sobre un catálogo sintético con vocabulario de Zipf: unos pocos
+ * términos aparecen en gran parte de los productos y la mayoría en muy pocos, y muchos comparten
+ * prefijo. El índice se alimenta con {@code indexAfterCommit} fuera de una transacción, sin base
+ * de datos.
+ * <ul>
+ *     <li>{@code search}: un término y un prefijo de 2-3 letras, el caso caro: el prefijo se
+ *     expande a los términos más frecuentes que empiezan por él y se recorren sus postings.</li>
+ *     <li>{@code suggest}: prefijos de 1-2 letras con el límite por defecto de la API (50).</li>
+ *     <li>{@code construir}: indexa el catálogo entero. Con {@code -prof gc},
+ *     {@code gc.alloc.rate.norm} son los bytes asignados por construcción.</li>
+ * </ul>
+ * El heap se amplía para que quepan el catálogo de un millón de productos y su índice. La memoria
+ * que retiene el índice construido la mide {@link SearchIndexFootprint}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchIndexBenchmark {
+
+    private static final int VOCABULARIO = 50_000;
+    private static final int CONSULTAS = 1024;
+    private static final int LIMITE = 50;
+    private static final String[] SILABAS = {
+            "ca", "co", "ma", "me", "mi", "sa", "se", "ta", "to", "la", "lo", "ra", "re", "pa", "po",
+            "ba", "be", "da", "de", "fa", "ga", "na", "ni", "va", "ve", "cha", "tra", "pro", "mon", "ter"};
+
+    @State(Scope.Benchmark)
+    public static class Indice {
+
+        @Param({"100000", "1000000"})
+        private int productos;
+
+        private ProductoSearchIndex index;
+        private String[] consultas;
+        private String[] prefijos;
+        private int siguiente;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Catalogo catalogo = new Catalogo();
+            index = nuevoIndice();
+            for (int id = 1; id <= productos; id++) {
+                index.indexAfterCommit(catalogo.producto(id));
+            }
+            SplittableRandom random = new SplittableRandom(7);
+            consultas = new String[CONSULTAS];
+            prefijos = new String[CONSULTAS];
+            for (int i = 0; i < CONSULTAS; i++) {
+                String termino = catalogo.termino(random);
+                String prefijo = catalogo.termino(random);
+                consultas[i] = termino + " " + prefijo.substring(0, Math.min(prefijo.length(), 2 + random.nextInt(2)));
+                prefijos[i] = prefijo.substring(0, 1 + random.nextInt(2));
+            }
+        }
+
+        private int siguiente() {
+            siguiente = (siguiente + 1) & (CONSULTAS - 1);
+            return siguiente;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Textos {
+
+        @Param({"100000", "1000000"})
+        private int productos;
+
+        private List<ProductoTexto> textos;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Catalogo catalogo = new Catalogo();
+            textos = new ArrayList<>(productos);
+            for (int id = 1; id <= productos; id++) {
+                textos.add(catalogo.producto(id));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Long> search(Indice indice) {
+        return indice.index.search(indice.consultas[indice.siguiente()], LIMITE);
+    }
+
+    @Benchmark
+    public List<String> suggest(Indice indice) {
+        return indice.index.suggest(indice.prefijos[indice.siguiente()], LIMITE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int construir(Textos textos) {
+        ProductoSearchIndex index = nuevoIndice();
+        for (ProductoTexto texto : textos.textos) {
+            index.indexAfterCommit(texto);
+        }
+        return index.size();
+    }
+
+    // Sin repositorio ni transacciones: solo se usan la indexación directa y las consultas
+    static ProductoSearchIndex nuevoIndice() {
+        return new ProductoSearchIndex(null, null);
+    }
+
+    /*
+     * Vocabulario de palabras de 2-4 sílabas y rangos de Zipf (peso 1/(k+1)) para elegir términos.
+     * La semilla es fija: cada ejecución indexa el mismo catálogo.
+     */
+    static final class Catalogo {
+
+        private final String[] vocabulario;
+        private final double[] acumulada;
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        Catalogo() {
+            Set<String> terminos = new LinkedHashSet<>();
+            while (terminos.size() < VOCABULARIO) {
+                StringBuilder termino = new StringBuilder();
+                int silabas = 2 + random.nextInt(3);
+                for (int i = 0; i < silabas; i++) {
+                    termino.append(SILABAS[random.nextInt(SILABAS.length)]);
+                }
+                terminos.add(termino.toString());
+            }
+            vocabulario = terminos.toArray(String[]::new);
+            acumulada = new double[VOCABULARIO];
+            double total = 0;
+            for (int k = 0; k < VOCABULARIO; k++) {
+                total += 1.0 / (k + 1);
+                acumulada[k] = total;
+            }
+            for (int k = 0; k < VOCABULARIO; k++) {
+                acumulada[k] /= total;
+            }
+        }
+
+        ProductoTexto producto(long id) {
+            return new ProductoTexto(id, frase(3 + random.nextInt(3)), frase(10 + random.nextInt(6)),
+                    vocabulario[random.nextInt(20)]);
+        }
+
+        private String frase(int terminos) {
+            StringBuilder frase = new StringBuilder();
+            for (int i = 0; i < terminos; i++) {
+                frase.append(termino(random)).append(' ');
+            }
+            return frase.toString();
+        }
+
+        private String termino(SplittableRandom random) {
+            int rango = Arrays.binarySearch(acumulada, random.nextDouble());
+            return vocabulario[Math.min(rango < 0 ? -rango - 1 : rango, VOCABULARIO - 1)];
+        }
+    }
+}
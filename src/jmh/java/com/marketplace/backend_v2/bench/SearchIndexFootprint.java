@@ -0,0 +1,45 @@
+package com.marketplace.backend_v2.bench;
+
+import com.marketplace.backend_v2.search.ProductoSearchIndex;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Memoria que retiene {@link ProductoSearchIndex} con el catálogo sintético de
+ * {@link SearchIndexBenchmark}: heap ocupado tras varios GC, antes y después de indexar. Los
+ * textos se generan al vuelo y no se guardan, así que la diferencia es el índice. JMH mide tiempo y
+ * bytes asignados, no lo que queda vivo.
+ *
+ * <p>Uso: {@code SearchIndexFootprint <productos>}, con un heap que quepa (el perfil usa {@code -Xmx3g}).
+ */
+public final class SearchIndexFootprint {
+
+    private SearchIndexFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Uso: SearchIndexFootprint <productos>");
+            System.exit(2);
+        }
+        int productos = Integer.parseInt(args[0]);
+        SearchIndexBenchmark.Catalogo catalogo = new SearchIndexBenchmark.Catalogo();
+
+        long antes = heapOcupado();
+        ProductoSearchIndex index = SearchIndexBenchmark.nuevoIndice();
+        for (int id = 1; id <= productos; id++) {
+            index.indexAfterCommit(catalogo.producto(id));
+        }
+        long despues = heapOcupado();
+        System.out.printf("%d productos indexados: %.1f MB retenidos (%.0f B por producto)%n", index.size(),
+                (despues - antes) / (1024.0 * 1024.0), (double) (despues - antes) / productos);
+    }
+
+    private static long heapOcupado() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,76 @@
+package com.marketplace.backend_v2.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.marketplace.backend_v2.cache.ProductoCache;
+import com.marketplace.backend_v2.config.ProductoCacheProperties;
+import com.marketplace.backend_v2.dto.ApiResponse;
+import com.marketplace.backend_v2.dto.CursorPage;
+import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.dto.VendedorDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de las respuestas de listado con un ObjectMapper configurado como el de Spring Boot
+ * (JavaTimeModule, fechas ISO-8601). Incluye la construcción del ApiResponse, que también ocurre
+ * en cada petición. {@code productosPageFragmentos} arma la misma página con el JSON de cada producto
+ * ya en ProductoCache, como hace ProductoController.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<ProductoDTO> productos;
+    private List<VendedorDTO> vendedores;
+    private ProductoCache productoCache;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        productos = CatalogoFixtures.productoDtos(size);
+        vendedores = CatalogoFixtures.vendedores(size).stream().map(VendedorDTO::fromEntity).toList();
+        productoCache = new ProductoCache(new ProductoCacheProperties(null, null, null, null), objectMapper);
+        productoCache.getJson(productos);
+    }
+
+    @Benchmark
+    public byte[] productosPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.page(new CursorPage<>(productos, "MTAw")));
+    }
+
+    @Benchmark
+    public byte[] productosPageFragmentos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(
+                ApiResponse.page(new CursorPage<>(productoCache.getJson(productos), "MTAw")));
+    }
+
+    @Benchmark
+    public byte[] vendedoresPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.page(new CursorPage<>(vendedores, null)));
+    }
+}
@@ -0,0 +1,147 @@
+package com.marketplace.backend_v2.loadtest;
+
+import com.marketplace.backend_v2.BackendV2Application;
+import com.marketplace.backend_v2.model.Producto;
+import com.marketplace.backend_v2.model.Usuario;
+import com.marketplace.backend_v2.model.Vendedor;
+import com.marketplace.backend_v2.repository.ProductoRepository;
+import com.marketplace.backend_v2.repository.UsuarioRepository;
+import com.marketplace.backend_v2.repository.VendedorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Siembra un catálogo sintético a través de los repositorios: N vendedores cuyo número de productos
+ * sigue una distribución de Zipf, M productos repartidos en categorías también sesgadas, y usuarios
+ * con una contraseña conocida para el {@link LoadDriver}. La semilla fija hace el catálogo
+ * reproducible entre ejecuciones.
+ *
+ * <p>Arranca el contexto sin servidor web contra el datasource configurado (se puede sobrescribir
+ * con argumentos {@code --spring.datasource.url=...}). Conviene ejecutarlo con la aplicación
+ * parada: la caché, el índice de búsqueda y los ETags de una instancia en marcha no ven estas
+ * inserciones.
+ *
+ * <p>Propiedades: {@code loadtest.sellers} (200), {@code loadtest.products} (50000),
+ * {@code loadtest.users} (100), {@code loadtest.seller-skew} (1.1), {@code loadtest.seed} (42).
+ */
+@Slf4j
+public final class CatalogSeeder {
+
+    private static final int LOTE = 1_000;
+    private static final String[] ADJETIVOS = {"Premium", "Clásico", "Compacto", "Inalámbrico", "Ecológico",
+            "Profesional", "Básico", "Deluxe", "Portátil", "Reforzado"};
+    private static final String[] SUSTANTIVOS = {"Auriculares", "Mochila", "Lámpara", "Zapatillas", "Cafetera",
+            "Teclado", "Chaqueta", "Botella", "Silla", "Reloj", "Cámara", "Balón", "Sartén", "Cuaderno"};
+
+    private final VendedorRepository vendedorRepository;
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final SplittableRandom random;
+
+    private CatalogSeeder(ConfigurableApplicationContext context, long seed) {
+        this.vendedorRepository = context.getBean(VendedorRepository.class);
+        this.productoRepository = context.getBean(ProductoRepository.class);
+        this.usuarioRepository = context.getBean(UsuarioRepository.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] args) {
+        int vendedores = Integer.getInteger("loadtest.sellers", 200);
+        int productos = Integer.getInteger("loadtest.products", 50_000);
+        int usuarios = Integer.getInteger("loadtest.users", 100);
+        double sesgoVendedores = Double.parseDouble(System.getProperty("loadtest.seller-skew", "1.1"));
+        long seed = Long.getLong("loadtest.seed", 42L);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendV2Application.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            new CatalogSeeder(context, seed).sembrar(vendedores, productos, usuarios, sesgoVendedores);
+        }
+    }
+
+    private void sembrar(int numVendedores, int numProductos, int numUsuarios, double sesgoVendedores) {
+        if (usuarioRepository.existsByUsername(LoadTestCatalog.usuario(0))) {
+            log.warn("El catálogo de carga ya está sembrado en esta base de datos, no se inserta nada");
+            return;
+        }
+        long inicio = System.nanoTime();
+
+        List<Vendedor> vendedores = transactionTemplate.execute(status -> vendedorRepository.saveAll(crearVendedores(numVendedores)));
+        log.info("Sembrados {} vendedores", vendedores.size());
+
+        Zipf porVendedor = new Zipf(vendedores.size(), sesgoVendedores);
+        Zipf porCategoria = LoadTestCatalog.categorias();
+        List<Producto> lote = new ArrayList<>(LOTE);
+        for (int i = 0; i < numProductos; i++) {
+            lote.add(crearProducto(i, vendedores.get(porVendedor.sample(random)),
+                    LoadTestCatalog.CATEGORIAS.get(porCategoria.sample(random))));
+            if (lote.size() == LOTE || i == numProductos - 1) {
+                List<Producto> pendientes = lote;
+                transactionTemplate.executeWithoutResult(status -> productoRepository.saveAll(pendientes));
+                lote = new ArrayList<>(LOTE);
+                if ((i + 1) % (LOTE * 10) == 0) {
+                    log.info("Sembrados {} de {} productos", i + 1, numProductos);
+                }
+            }
+        }
+
+        // BCrypt es deliberadamente lento: todos comparten contraseña, basta con un hash
+        String hash = passwordEncoder.encode(LoadTestCatalog.PASSWORD);
+        List<Usuario> usuarios = new ArrayList<>(numUsuarios);
+        for (int i = 0; i < numUsuarios; i++) {
+            usuarios.add(Usuario.builder()
+                    .username(LoadTestCatalog.usuario(i))
+                    .password(hash)
+                    .email(LoadTestCatalog.usuario(i) + "@example.com")
+                    .build());
+        }
+        transactionTemplate.executeWithoutResult(status -> usuarioRepository.saveAll(usuarios));
+
+        log.info("Catálogo de carga sembrado: {} vendedores, {} productos, {} usuarios en {} ms",
+                numVendedores, numProductos, numUsuarios, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private List<Vendedor> crearVendedores(int cantidad) {
+        List<Vendedor> vendedores = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            vendedores.add(Vendedor.builder()
+                    .nombre("Tienda de carga " + i)
+                    .email(LoadTestCatalog.emailVendedor(i))
+                    .telefono(String.format("9%08d", i))
+                    .direccion("Calle " + (i + 1) + ", Lima")
+                    .rucDni(String.format("20%09d", i))
+                    .build());
+        }
+        return vendedores;
+    }
+
+    private Producto crearProducto(int i, Vendedor vendedor, String categoria) {
+        String nombre = ADJETIVOS[random.nextInt(ADJETIVOS.length)] + " "
+                + SUSTANTIVOS[random.nextInt(SUSTANTIVOS.length)] + " " + i;
+        return Producto.builder()
+                .nombre(nombre)
+                .descripcion(nombre + " de la categoría " + categoria + ", con garantía de un año y envío a todo el país.")
+                .precio(BigDecimal.valueOf(5 + random.nextDouble() * 1_995).setScale(2, RoundingMode.HALF_UP))
+                // Uno de cada diez sin stock, para que /productos/stock filtre de verdad
+                .stock(random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(500))
+                .vendedor(vendedor)
+                .categoria(categoria)
+                .imagenUrl("https://cdn.example.com/productos/" + i + ".jpg")
+                .build();
+    }
+}
@@ -0,0 +1,411 @@
+package com.marketplace.backend_v2.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.marketplace.backend_v2.dto.CursorPage;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga en lazo abierto: lanza peticiones a un ritmo fijo, cada una en su propio hilo
+ * virtual, y mide la latencia desde el instante en que debía empezar. Así un servidor lento no
+ * frena al cliente ni oculta sus colas (omisión coordinada), y los percentiles altos reflejan lo
+ * que vería un usuario real.
+ *
+ * <p>La mezcla de operaciones, los productos elegidos (Zipf sobre un orden aleatorio) y los
+ * usuarios salen de una semilla fija, de modo que dos builds reciben la misma secuencia. El informe
+ * JSON incluye, por endpoint, throughput, códigos de estado, percentiles y el histograma completo
+ * comprimido en base64 para poder combinarlo o dibujarlo después.
+ *
+ * <p>Propiedades (valores por defecto): {@code loadtest.base-url} (http://localhost:8080),
+ * {@code loadtest.rate} (200 peticiones/s), {@code loadtest.warmup} (PT15S),
+ * {@code loadtest.duration} (PT60S), {@code loadtest.max-in-flight} (2000),
+ * {@code loadtest.users} (100), {@code loadtest.product-skew} (0.9), {@code loadtest.seed} (42),
+ * {@code loadtest.mix} (p. ej. {@code LISTADO=30,PRODUCTO=30,CATEGORIA=15,LOGIN=3,VALIDATE=12,ALTA=5,STOCK=5}),
+ * {@code loadtest.label} (fecha y hora) y {@code loadtest.output} (target/loadtest).
+ */
+public final class LoadDriver {
+
+    private static final long MAX_LATENCIA_US = TimeUnit.MINUTES.toMicros(10);
+    private static final int MAX_IDS = 20_000;
+    private static final int TOKENS = 32;
+    private static final String LIBERACION = "POST /productos/{id}/stock/release";
+
+    enum Operacion {
+        LISTADO("GET /productos", 30),
+        PRODUCTO("GET /productos/{id}", 30),
+        CATEGORIA("GET /productos/categoria/{c}", 15),
+        LOGIN("POST /auth/login", 3),
+        VALIDATE("GET /auth/validate", 12),
+        ALTA("POST /productos", 5),
+        STOCK("POST /productos/{id}/stock/reserve", 5);
+
+        private final String endpoint;
+        private final int pesoPorDefecto;
+
+        Operacion(String endpoint, int pesoPorDefecto) {
+            this.endpoint = endpoint;
+            this.pesoPorDefecto = pesoPorDefecto;
+        }
+    }
+
+    record Config(URI baseUrl, double rate, Duration warmup, Duration duration, int maxInFlight, int usuarios,
+                  double sesgoProductos, long seed, Map<Operacion, Integer> mezcla, String label, Path output) {
+
+        static Config fromSystemProperties() {
+            Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+            for (Operacion operacion : Operacion.values()) {
+                mezcla.put(operacion, operacion.pesoPorDefecto);
+            }
+            String mix = System.getProperty("loadtest.mix");
+            if (mix != null && !mix.isBlank()) {
+                mezcla.replaceAll((operacion, peso) -> 0);
+                for (String parte : mix.split(",")) {
+                    String[] claveValor = parte.split("=");
+                    mezcla.put(Operacion.valueOf(claveValor[0].strip().toUpperCase()), Integer.parseInt(claveValor[1].strip()));
+                }
+            }
+            String label = System.getProperty("loadtest.label",
+                    DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now()));
+            return new Config(
+                    URI.create(System.getProperty("loadtest.base-url", "http://localhost:8080")),
+                    Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                    Duration.parse(System.getProperty("loadtest.warmup", "PT15S")),
+                    Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                    Integer.getInteger("loadtest.max-in-flight", 2_000),
+                    Integer.getInteger("loadtest.users", 100),
+                    Double.parseDouble(System.getProperty("loadtest.product-skew", "0.9")),
+                    Long.getLong("loadtest.seed", 42L),
+                    mezcla,
+                    label,
+                    Path.of(System.getProperty("loadtest.output", "target/loadtest")));
+        }
+
+        Config con(URI baseUrl, String label) {
+            return new Config(baseUrl, rate, warmup, duration, maxInFlight, usuarios, sesgoProductos, seed, mezcla,
+                    label, output);
+        }
+    }
+
+    /** Lo que se decide en el hilo planificador, para que la secuencia dependa solo de la semilla. */
+    private record Peticion(Operacion operacion, HttpRequest request, long idProducto) {}
+
+    private final Config config;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final SplittableRandom random;
+    private final Map<String, Estadisticas> estadisticas = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> tokens = new AtomicReferenceArray<>(TOKENS);
+    private final LongAdder descartadas = new LongAdder();
+
+    private List<Long> productos;
+    private List<Long> vendedores;
+    private Zipf porProducto;
+    private final Zipf porCategoria = LoadTestCatalog.categorias();
+    private Operacion[] ruleta;
+
+    LoadDriver(Config config) {
+        this.config = config;
+        this.random = new SplittableRandom(config.seed());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path destino = new LoadDriver(Config.fromSystemProperties()).run();
+        System.out.println("Informe escrito en " + destino.toAbsolutePath());
+    }
+
+    Path run() throws IOException, InterruptedException {
+        preparar();
+        return escribir(ejecutar());
+    }
+
+    private void preparar() throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode pagina = getJson("/productos?limit=500" + (cursor != null ? "&after=" + cursor : ""));
+            pagina.path("data").forEach(producto -> ids.add(producto.path("id").asLong()));
+            cursor = pagina.path("nextCursor").isTextual() ? pagina.path("nextCursor").asText() : null;
+        } while (cursor != null && ids.size() < MAX_IDS);
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No hay productos: ejecuta antes CatalogSeeder");
+        }
+        // Barajados con la semilla: la popularidad no debe depender del orden de inserción
+        Collections.shuffle(ids, new Random(config.seed()));
+        productos = List.copyOf(ids);
+        porProducto = new Zipf(productos.size(), config.sesgoProductos());
+
+        List<Long> idsVendedores = new ArrayList<>();
+        getJson("/vendedores/activos?limit=500").path("data")
+                .forEach(vendedor -> idsVendedores.add(vendedor.path("id").asLong()));
+        vendedores = List.copyOf(idsVendedores);
+
+        for (int i = 0; i < TOKENS; i++) {
+            HttpResponse<String> response = client.send(login(i % config.usuarios()), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login de " + LoadTestCatalog.usuario(i % config.usuarios())
+                        + " falló con " + response.statusCode() + ": ejecuta antes CatalogSeeder");
+            }
+            tokens.set(i, mapper.readTree(response.body()).path("data").path("token").asText());
+        }
+
+        List<Operacion> ruleta = new ArrayList<>();
+        config.mezcla().forEach((operacion, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                ruleta.add(operacion);
+            }
+        });
+        this.ruleta = ruleta.toArray(Operacion[]::new);
+        System.out.printf("Preparado: %d productos, %d vendedores, %d tokens; %.0f req/s durante %s (+%s de calentamiento)%n",
+                productos.size(), vendedores.size(), TOKENS, config.rate(), config.duration(), config.warmup());
+    }
+
+    private Map<String, Object> ejecutar() throws InterruptedException {
+        Semaphore enVuelo = new Semaphore(config.maxInFlight());
+        long intervalo = (long) (1_000_000_000L / config.rate());
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + config.warmup().toNanos();
+        long fin = inicioMedicion + config.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long previsto = inicio + i * intervalo;
+            if (previsto >= fin) {
+                break;
+            }
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            Peticion peticion = siguiente();
+            boolean medir = previsto >= inicioMedicion;
+            if (!enVuelo.tryAcquire()) {
+                if (medir) {
+                    descartadas.increment();
+                }
+                continue;
+            }
+            Thread.ofVirtual().start(() -> {
+                try {
+                    enviar(peticion, previsto, medir);
+                } finally {
+                    enVuelo.release();
+                }
+            });
+        }
+        if (!enVuelo.tryAcquire(config.maxInFlight(), 2, TimeUnit.MINUTES)) {
+            System.err.println("Quedaron peticiones sin terminar al cerrar el informe");
+        }
+        return informe(config.duration().toNanos() / 1e9);
+    }
+
+    private Peticion siguiente() {
+        Operacion operacion = ruleta[random.nextInt(ruleta.length)];
+        long id = productos.get(porProducto.sample(random));
+        HttpRequest request = switch (operacion) {
+            case LISTADO -> random.nextInt(4) == 0
+                    ? get("/productos?limit=50", null)
+                    : get("/productos?limit=50&after=" + CursorPage.encodeCursor(productos.get(random.nextInt(productos.size()))), null);
+            case PRODUCTO -> get("/productos/" + id, null);
+            case CATEGORIA -> get("/productos/categoria/"
+                    + URLEncoder.encode(LoadTestCatalog.CATEGORIAS.get(porCategoria.sample(random)), StandardCharsets.UTF_8)
+                    + "?limit=50", null);
+            case LOGIN -> login(random.nextInt(config.usuarios()));
+            case VALIDATE -> get("/auth/validate", "Bearer " + tokens.get(random.nextInt(TOKENS)));
+            case ALTA -> post("/productos", """
+                    {"nombre":"Producto de carga %d","descripcion":"Alta generada por LoadDriver","precio":%d.90,\
+                    "stock":25,"vendedorId":%d,"categoria":"%s"}"""
+                    .formatted(random.nextInt(1_000_000), 5 + random.nextInt(500),
+                            vendedores.get(random.nextInt(vendedores.size())),
+                            LoadTestCatalog.CATEGORIAS.get(porCategoria.sample(random))));
+            case STOCK -> post("/productos/" + id + "/stock/reserve", "{\"cantidad\":1}");
+        };
+        return new Peticion(operacion, request, id);
+    }
+
+    private void enviar(Peticion peticion, long previsto, boolean medir) {
+        HttpResponse<String> response = medirEnvio(peticion.operacion().endpoint, peticion.request(), previsto, medir);
+        if (response == null || response.statusCode() >= 300) {
+            return;
+        }
+        if (peticion.operacion() == Operacion.LOGIN) {
+            try {
+                String token = mapper.readTree(response.body()).path("data").path("token").asText(null);
+                if (token != null) {
+                    tokens.set(ThreadLocalRandom.current().nextInt(TOKENS), token);
+                }
+            } catch (IOException ignored) {
+                // El login ya quedó medido; un cuerpo inesperado solo impide rotar el token
+            }
+        } else if (peticion.operacion() == Operacion.STOCK) {
+            // Devuelve la unidad para que el stock no se agote durante la prueba
+            medirEnvio(LIBERACION, post("/productos/" + peticion.idProducto() + "/stock/release", "{\"cantidad\":1}"),
+                    System.nanoTime(), medir);
+        }
+    }
+
+    private HttpResponse<String> medirEnvio(String endpoint, HttpRequest request, long previsto, boolean medir) {
+        Estadisticas stats = medir ? estadisticas.computeIfAbsent(endpoint, key -> new Estadisticas()) : null;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (stats != null) {
+                stats.registrar(System.nanoTime() - previsto, response.statusCode());
+            }
+            return response;
+        } catch (IOException e) {
+            if (stats != null) {
+                stats.registrarFallo(System.nanoTime() - previsto);
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private Map<String, Object> informe(double segundos) {
+        Map<String, Object> informe = new LinkedHashMap<>();
+        informe.put("label", config.label());
+        informe.put("baseUrl", config.baseUrl().toString());
+        informe.put("fecha", Instant.now().toString());
+        informe.put("ritmoObjetivo", config.rate());
+        informe.put("segundosMedidos", segundos);
+        informe.put("seed", config.seed());
+        informe.put("descartadas", descartadas.sum());
+
+        Histogram total = new Histogram(MAX_LATENCIA_US, 3);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        estadisticas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    endpoints.put(entry.getKey(), entry.getValue().resumen(segundos));
+                    total.add(entry.getValue().histograma);
+                });
+        informe.put("total", Estadisticas.percentiles(total, segundos));
+        informe.put("endpoints", endpoints);
+        return informe;
+    }
+
+    private Path escribir(Map<String, Object> informe) throws IOException {
+        Files.createDirectories(config.output());
+        Path destino = config.output().resolve(config.label() + ".json");
+        mapper.writeValue(destino.toFile(), informe);
+        Files.copy(destino, config.output().resolve("latest.json"), StandardCopyOption.REPLACE_EXISTING);
+        return destino;
+    }
+
+    private JsonNode getJson(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(get(path, null), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " respondió " + response.statusCode());
+        }
+        return mapper.readTree(response.body());
+    }
+
+    private HttpRequest login(int usuario) {
+        return post("/auth/login", "{\"username\":\"%s\",\"password\":\"%s\"}"
+                .formatted(LoadTestCatalog.usuario(usuario), LoadTestCatalog.PASSWORD));
+    }
+
+    private HttpRequest get(String path, String authorization) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(config.baseUrl().resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(config.baseUrl().resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static final class Estadisticas {
+        private final ConcurrentHistogram histograma = new ConcurrentHistogram(MAX_LATENCIA_US, 3);
+        private final Map<String, LongAdder> estados = new ConcurrentHashMap<>();
+
+        void registrar(long nanos, int status) {
+            histograma.recordValue(Math.min(MAX_LATENCIA_US, TimeUnit.NANOSECONDS.toMicros(nanos)));
+            estados.computeIfAbsent(Integer.toString(status), key -> new LongAdder()).increment();
+        }
+
+        void registrarFallo(long nanos) {
+            histograma.recordValue(Math.min(MAX_LATENCIA_US, TimeUnit.NANOSECONDS.toMicros(nanos)));
+            estados.computeIfAbsent("fallo", key -> new LongAdder()).increment();
+        }
+
+        Map<String, Object> resumen(double segundos) {
+            Map<String, Object> resumen = percentiles(histograma, segundos);
+            Map<String, Long> porEstado = new TreeMap<>();
+            estados.forEach((estado, contador) -> porEstado.put(estado, contador.sum()));
+            resumen.put("estados", porEstado);
+            resumen.put("histograma", codificar(histograma));
+            return resumen;
+        }
+
+        static Map<String, Object> percentiles(Histogram histograma, double segundos) {
+            Map<String, Object> resumen = new LinkedHashMap<>();
+            resumen.put("peticiones", histograma.getTotalCount());
+            resumen.put("throughput", histograma.getTotalCount() / segundos);
+            Map<String, Double> latencia = new LinkedHashMap<>();
+            latencia.put("media", histograma.getMean() / 1_000.0);
+            latencia.put("p50", histograma.getValueAtPercentile(50) / 1_000.0);
+            latencia.put("p95", histograma.getValueAtPercentile(95) / 1_000.0);
+            latencia.put("p99", histograma.getValueAtPercentile(99) / 1_000.0);
+            latencia.put("p999", histograma.getValueAtPercentile(99.9) / 1_000.0);
+            latencia.put("max", histograma.getMaxValue() / 1_000.0);
+            resumen.put("latenciaMs", latencia);
+            return resumen;
+        }
+
+        // Histograma completo en microsegundos (Histogram.decodeFromCompressedByteBuffer para leerlo)
+        private static String codificar(Histogram histograma) {
+            ByteBuffer buffer = ByteBuffer.allocate(histograma.getNeededByteBufferCapacity());
+            int bytes = histograma.encodeIntoCompressedByteBuffer(buffer);
+            return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), bytes));
+        }
+    }
+}
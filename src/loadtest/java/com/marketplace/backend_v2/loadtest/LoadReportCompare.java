@@ -0,0 +1,91 @@
+package com.marketplace.backend_v2.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Compara dos informes de {@link LoadDriver} endpoint a endpoint. Falla (código 1) si el p99 de
+ * algún endpoint empeora más de la tolerancia o si aumenta su proporción de respuestas 5xx y
+ * fallos de red.
+ *
+ * <p>Uso: {@code LoadReportCompare <base.json> <actual.json> [tolerancia-p99]} (0.20 por defecto).
+ */
+public final class LoadReportCompare {
+
+    // Por debajo de este p99 las diferencias son ruido del propio cliente
+    private static final double P99_MINIMO_MS = 2.0;
+
+    private LoadReportCompare() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: LoadReportCompare <base.json> <actual.json> [tolerancia-p99]");
+            System.exit(2);
+        }
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) : 0.20;
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode base = mapper.readTree(new File(args[0]));
+        JsonNode actual = mapper.readTree(new File(args[1]));
+
+        System.out.printf("Base: %s   Actual: %s%n", base.path("label").asText(), actual.path("label").asText());
+        System.out.printf("%-40s %10s %10s %10s %10s %10s %10s%n",
+                "endpoint", "req/s", "Δ", "p50 ms", "p99 ms", "Δ p99", "errores");
+        int regresiones = 0;
+        Iterator<Map.Entry<String, JsonNode>> endpoints = actual.path("endpoints").fields();
+        while (endpoints.hasNext()) {
+            Map.Entry<String, JsonNode> entry = endpoints.next();
+            JsonNode ahora = entry.getValue();
+            JsonNode antes = base.path("endpoints").path(entry.getKey());
+            double p99 = ahora.path("latenciaMs").path("p99").asDouble();
+            double errores = tasaErrores(ahora);
+            if (antes.isMissingNode()) {
+                System.out.printf("%-40s %10.1f %10s %10.2f %10.2f %10s %9.2f%%%n", entry.getKey(),
+                        ahora.path("throughput").asDouble(), "(nuevo)", ahora.path("latenciaMs").path("p50").asDouble(),
+                        p99, "", errores * 100);
+                continue;
+            }
+            double p99Base = antes.path("latenciaMs").path("p99").asDouble();
+            boolean lento = p99 > P99_MINIMO_MS && p99 > p99Base * (1 + tolerancia);
+            boolean fallaMas = errores > tasaErrores(antes) + 0.001;
+            System.out.printf("%-40s %10.1f %9.1f%% %10.2f %10.2f %9.1f%% %9.2f%%%s%n", entry.getKey(),
+                    ahora.path("throughput").asDouble(),
+                    variacion(antes.path("throughput").asDouble(), ahora.path("throughput").asDouble()),
+                    ahora.path("latenciaMs").path("p50").asDouble(), p99, variacion(p99Base, p99), errores * 100,
+                    lento || fallaMas ? "  <-- REGRESIÓN" : "");
+            if (lento || fallaMas) {
+                regresiones++;
+            }
+        }
+        if (regresiones > 0) {
+            System.err.println(regresiones + " endpoint(s) empeoran respecto a la base");
+            System.exit(1);
+        }
+    }
+
+    // 4xx como 409 (sin stock) o 401 son respuestas esperadas de la mezcla; solo cuentan 5xx y fallos de red
+    private static double tasaErrores(JsonNode endpoint) {
+        long peticiones = endpoint.path("peticiones").asLong();
+        if (peticiones == 0) {
+            return 0;
+        }
+        long errores = 0;
+        Iterator<Map.Entry<String, JsonNode>> estados = endpoint.path("estados").fields();
+        while (estados.hasNext()) {
+            Map.Entry<String, JsonNode> estado = estados.next();
+            if (estado.getKey().startsWith("5") || estado.getKey().equals("fallo")) {
+                errores += estado.getValue().asLong();
+            }
+        }
+        return errores / (double) peticiones;
+    }
+
+    private static double variacion(double antes, double ahora) {
+        return antes == 0 ? 0 : (ahora - antes) / antes * 100;
+    }
+}
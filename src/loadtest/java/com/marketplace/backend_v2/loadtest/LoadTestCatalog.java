@@ -0,0 +1,35 @@
+package com.marketplace.backend_v2.loadtest;
+
+import java.util.List;
+
+/**
+ * Convenciones compartidas entre {@link CatalogSeeder} y {@link LoadDriver}: el driver no consulta
+ * la base de datos, así que deduce usuarios y categorías de estas constantes.
+ */
+final class LoadTestCatalog {
+
+    static final String USUARIO_PREFIJO = "loadtest-user-";
+    static final String PASSWORD = "loadtest-password";
+
+    // Ordenadas por popularidad: la distribución de Zipf da más productos a las primeras
+    static final List<String> CATEGORIAS = List.of(
+            "electronica", "ropa", "hogar", "deportes", "libros", "juguetes", "belleza", "alimentos",
+            "mascotas", "automotriz", "jardin", "musica", "oficina", "salud", "bebes", "herramientas",
+            "videojuegos", "arte", "viajes", "coleccionables");
+    static final double SESGO_CATEGORIAS = 1.0;
+
+    private LoadTestCatalog() {
+    }
+
+    static String usuario(int i) {
+        return USUARIO_PREFIJO + i;
+    }
+
+    static String emailVendedor(int i) {
+        return "loadtest-seller-" + i + "@example.com";
+    }
+
+    static Zipf categorias() {
+        return new Zipf(CATEGORIAS.size(), SESGO_CATEGORIAS);
+    }
+}
@@ -0,0 +1,109 @@
+package com.marketplace.backend_v2.loadtest;
+
+import com.marketplace.backend_v2.BackendV2Application;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tomcat con hilos de plataforma frente a hilos virtuales cuando la base de datos es lenta. Arranca
+ * la aplicación dentro del proceso en cada modo, con una espera fija de {@code loadtest.db-latency-ms}
+ * (50) en cada sentencia JDBC mientras la conexión está tomada, y le aplica la carga en lazo abierto
+ * de {@link LoadDriver} con las mismas propiedades {@code loadtest.*}. Deja un informe por modo,
+ * {@code <label>-plataforma.json} y {@code <label>-virtuales.json}, para {@link LoadReportCompare}.
+ * <p>
+ * Usa el datasource configurado y el catálogo de {@link CatalogSeeder}, así que la aplicación no
+ * debe estar arrancada. Cliente y servidor comparten la máquina: con pocos núcleos el cliente
+ * compite con Tomcat por la CPU y los percentiles altos lo reflejan.
+ * <p>
+ * Las mediciones hechas hasta ahora (1 vCPU) no justifican activar los hilos virtuales: daban más
+ * throughput, pero un p99 peor en las páginas que consultan la base de datos, así que
+ * {@code spring.threads.virtual.enabled} sigue desactivado por defecto. Antes de cambiarlo hay
+ * que repetir la comparación con PostgreSQL en una máquina de varios núcleos.
+ */
+public final class ThreadingModeBenchmark {
+
+    private static final long LATENCIA_BD_MS = Long.getLong("loadtest.db-latency-ms", 50);
+
+    private static volatile boolean latenciaActiva;
+
+    private ThreadingModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadDriver.Config config = LoadDriver.Config.fromSystemProperties();
+        List<Path> informes = new ArrayList<>();
+        informes.add(ejecutar(config, false));
+        informes.add(ejecutar(config, true));
+        for (Path informe : informes) {
+            System.out.println("Informe escrito en " + informe.toAbsolutePath());
+        }
+    }
+
+    private static Path ejecutar(LoadDriver.Config config, boolean hilosVirtuales) throws Exception {
+        latenciaActiva = false;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendV2Application.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new LatenciaBeanPostProcessor()))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + hilosVirtuales,
+                        "--logging.level.com.marketplace=WARN")) {
+            int puerto = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            latenciaActiva = true;
+            String label = config.label() + (hilosVirtuales ? "-virtuales" : "-plataforma");
+            return new LoadDriver(config.con(URI.create("http://localhost:" + puerto), label)).run();
+        } finally {
+            latenciaActiva = false;
+        }
+    }
+
+    /**
+     * Envuelve el DataSource para que cada ejecución de sentencia espere con la conexión tomada,
+     * como lo haría una consulta lenta en PostgreSQL.
+     */
+    private static final class LatenciaBeanPostProcessor implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return proxy(Connection.class, super.getConnection());
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (latenciaActiva && method.getName().startsWith("execute")) {
+                    Thread.sleep(LATENCIA_BD_MS);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result != null && Statement.class.isAssignableFrom(method.getReturnType())) {
+                    return proxy((Class<Object>) method.getReturnType(), result);
+                }
+                return result;
+            });
+        }
+    }
+}
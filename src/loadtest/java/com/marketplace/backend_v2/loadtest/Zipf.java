@@ -0,0 +1,37 @@
+package com.marketplace.backend_v2.loadtest;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Muestreo de rangos 0..n-1 con distribución de Zipf: el rango {@code k} tiene peso
+ * {@code 1 / (k + 1)^s}. Con {@code s} cercano a 1, unos pocos rangos concentran la mayoría de
+ * las muestras, como ocurre con el tamaño de los vendedores o la popularidad de los productos.
+ */
+final class Zipf {
+
+    private final double[] acumulada;
+
+    Zipf(int n, double s) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n debe ser positivo: " + n);
+        }
+        acumulada = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1.0 / Math.pow(k + 1, s);
+            acumulada[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            acumulada[k] /= total;
+        }
+    }
+
+    int sample(RandomGenerator random) {
+        int indice = Arrays.binarySearch(acumulada, random.nextDouble());
+        if (indice < 0) {
+            indice = -indice - 1;
+        }
+        return Math.min(indice, acumulada.length - 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.marketplace.backend_v2.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión en memoria de cada colección, incrementada tras cada escritura confirmada. Permite
+ * calcular el ETag de los listados y responder 304 sin consultar la base de datos. Igual que
+ * {@link ProductoCache}, asume una única instancia de la aplicación.
+ * <p>
+ * La versión solo describe lo que hay en el primario: un listado leído de la réplica no lleva este
+ * ETag ({@code NegotiatedETags#listado}).
+ */
+@Component
+public class CatalogVersion {
+
+    // Distingue arranques: tras un reinicio los contadores vuelven a cero y los ETag no deben coincidir
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong productos = new AtomicLong();
+    private final AtomicLong vendedores = new AtomicLong();
+
+    public String productosEtag() {
+        return "W/\"p-" + epoch + "-" + productos.get() + "\"";
+    }
+
+    public String vendedoresEtag() {
+        return "W/\"v-" + epoch + "-" + vendedores.get() + "\"";
+    }
+
+    public void productosChanged() {
+        runNowAndAfterCommit(productos::incrementAndGet);
+    }
+
+    // Los listados de productos incluyen nombre y email del vendedor, así que también cambian
+    public void vendedoresChanged() {
+        runNowAndAfterCommit(() -> {
+            vendedores.incrementAndGet();
+            productos.incrementAndGet();
+        });
+    }
+
+    private void runNowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
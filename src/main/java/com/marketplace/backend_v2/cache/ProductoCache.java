@@ -0,0 +1,373 @@
+package com.marketplace.backend_v2.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.marketplace.backend_v2.config.ProductoCacheProperties;
+import com.marketplace.backend_v2.datasource.ReadRouting;
+import com.marketplace.backend_v2.dto.CacheStatsDTO;
+import com.marketplace.backend_v2.dto.CursorPage;
+import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.web.JsonFragment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Caché de lectura en memoria para productos individuales, páginas por categoría / activos y el
+ * JSON ya serializado de cada producto.
+ * Las invalidaciones se aplican al momento y otra vez tras el commit, para que una lectura
+ * concurrente no vuelva a cachear datos anteriores a la transacción.
+ * <p>
+ * Cada caché lleva un contador de generación que sube antes de cada invalidación: una carga solo
+ * guarda su resultado si la generación no cambió mientras consultaba la base de datos. Las páginas
+ * se indexan por producto, por vendedor y por lista con su rango de IDs, y las invalidaciones
+ * consultan esos índices en lugar de recorrer la caché. Los índices se mantienen dentro de la
+ * operación atómica de la clave (la carga, el borrado o el desalojo de Caffeine), así que nunca falta
+ * una entrada que esté en la caché.
+ */
+@Component
+public class ProductoCache implements MeterBinder {
+
+    private static final String LISTA_CATEGORIA = "categoria";
+    private static final String LISTA_ACTIVOS = "activos";
+    private static final Lista ACTIVOS = new Lista(LISTA_ACTIVOS, null);
+
+    private final Cache<Long, ProductoDTO> productos;
+    private final Cache<PaginaKey, CursorPage<ProductoDTO>> paginas;
+    private final Cache<Long, Fragmento> json;
+    private final ObjectWriter productoWriter;
+
+    private final AtomicLong generacionProductos = new AtomicLong();
+    private final AtomicLong generacionPaginas = new AtomicLong();
+    private final Indice<Long, Long> productosPorVendedor = new Indice<>();
+    private final Indice<Long, PaginaKey> paginasPorProducto = new Indice<>();
+    private final Indice<Long, PaginaKey> paginasPorVendedor = new Indice<>();
+    // Por lista, las páginas ordenadas por su cursor de inicio con el último ID que cubren
+    private final Map<Lista, ConcurrentNavigableMap<PaginaKey, Long>> paginasPorLista = new ConcurrentHashMap<>();
+
+    public ProductoCache(ProductoCacheProperties properties, ObjectMapper objectMapper) {
+        this.productos = Caffeine.newBuilder()
+                .maximumSize(properties.maxProductos())
+                .expireAfterWrite(properties.ttl())
+                .evictionListener((Long id, ProductoDTO producto, RemovalCause cause) -> desindexar(id, producto))
+                .recordStats()
+                .build();
+        this.paginas = Caffeine.newBuilder()
+                .maximumSize(properties.maxPaginas())
+                .expireAfterWrite(properties.ttl())
+                .evictionListener((PaginaKey key, CursorPage<ProductoDTO> pagina, RemovalCause cause) ->
+                        desindexar(key, pagina))
+                .recordStats()
+                .build();
+        this.json = Caffeine.newBuilder()
+                .maximumWeight(properties.maxJson().toBytes())
+                .<Long, Fragmento>weigher((id, fragmento) -> fragmento.json().size())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        this.productoWriter = objectMapper.writerFor(ProductoDTO.class);
+    }
+
+    private record Lista(String nombre, String categoria) {}
+
+    private record PaginaKey(Lista lista, Long after, int limit) implements Comparable<PaginaKey> {
+        @Override
+        public int compareTo(PaginaKey otra) {
+            int porAfter = after.compareTo(otra.after);
+            return porAfter != 0 ? porAfter : Integer.compare(limit, otra.limit);
+        }
+    }
+
+    private record Fragmento(Long version, Long vendedorVersion, JsonFragment json) {
+        boolean esDe(ProductoDTO producto) {
+            return Objects.equals(version, producto.version())
+                    && Objects.equals(vendedorVersion, producto.vendedorVersion());
+        }
+    }
+
+    public ProductoDTO getProducto(Long id, Supplier<ProductoDTO> loader) {
+        return getOrLoad(productos, generacionProductos, id, loader, this::indexar);
+    }
+
+    public CursorPage<ProductoDTO> getPaginaCategoria(String categoria, Long after, int limit,
+                                                      Supplier<CursorPage<ProductoDTO>> loader) {
+        PaginaKey key = new PaginaKey(new Lista(LISTA_CATEGORIA, categoria), after, limit);
+        return getOrLoad(paginas, generacionPaginas, key, loader, this::indexar);
+    }
+
+    public CursorPage<ProductoDTO> getPaginaActivos(Long after, int limit, Supplier<CursorPage<ProductoDTO>> loader) {
+        return getOrLoad(paginas, generacionPaginas, new PaginaKey(ACTIVOS, after, limit), loader, this::indexar);
+    }
+
+    /**
+     * JSON del producto en UTF-8. El fragmento guardado solo se usa si es de la misma versión del
+     * producto y del vendedor que el DTO recibido; si no, se serializa de nuevo y lo reemplaza, así
+     * que un cambio de vendedor no necesita recorrer esta caché. El fragmento devuelto lleva el DTO
+     * para las respuestas en formatos binarios; la caché guarda solo los bytes.
+     */
+    public JsonFragment getJson(ProductoDTO producto) {
+        Fragmento fragmento = json.getIfPresent(producto.id());
+        if (fragmento == null || !fragmento.esDe(producto)) {
+            fragmento = new Fragmento(producto.version(), producto.vendedorVersion(), serialize(producto));
+            json.put(producto.id(), fragmento);
+        }
+        return fragmento.json().conOrigen(producto);
+    }
+
+    public List<JsonFragment> getJson(List<ProductoDTO> productos) {
+        return productos.stream().map(this::getJson).toList();
+    }
+
+    private JsonFragment serialize(ProductoDTO producto) {
+        try {
+            return new JsonFragment(productoWriter.writeValueAsBytes(producto));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el producto " + producto.id(), e);
+        }
+    }
+
+    /*
+     * Cache.get(key, loader) ejecuta la carga dentro de ConcurrentHashMap.compute, que en Java 21
+     * fija el hilo virtual a su portador durante toda la consulta. Cargando fuera del mapa, dos
+     * fallos simultáneos de la misma clave pueden consultar ambos la base de datos, a cambio de no
+     * bloquear portadores mientras se espera a PostgreSQL. Las cargas leen del primario.
+     *
+     * El resultado se guarda con compute, y solo si no hubo invalidaciones desde antes de la carga:
+     * una invalidación sube la generación antes de borrar, así que o la carga ve la generación nueva
+     * y no guarda nada, o guarda antes y la invalidación borra lo que guardó.
+     */
+    private static <K, V> V getOrLoad(Cache<K, V> cache, AtomicLong generacion, K key, Supplier<V> loader,
+                                      BiConsumer<K, V> indexar) {
+        V value = cache.getIfPresent(key);
+        if (value == null) {
+            long inicio = generacion.get();
+            try (ReadRouting.Scope primario = ReadRouting.primario()) {
+                value = loader.get();
+            }
+            V cargado = value;
+            cache.asMap().compute(key, (k, actual) -> {
+                if (actual != null || generacion.get() != inicio) {
+                    return actual;
+                }
+                indexar.accept(k, cargado);
+                return cargado;
+            });
+        }
+        return value;
+    }
+
+    /**
+     * Invalida un producto y solo las páginas cuyo rango de IDs lo incluye, en su categoría
+     * anterior y en la nueva, además de las páginas de activos.
+     */
+    public void invalidateProducto(Long id, String categoriaAnterior, String categoriaNueva) {
+        runNowAndAfterCommit(() -> {
+            invalidarProducto(id);
+            json.invalidate(id);
+            generacionPaginas.incrementAndGet();
+            Set<Lista> listas = new HashSet<>();
+            listas.add(ACTIVOS);
+            listas.add(new Lista(LISTA_CATEGORIA, categoriaAnterior));
+            listas.add(new Lista(LISTA_CATEGORIA, categoriaNueva));
+            listas.forEach(lista -> paginasQueCubren(lista, id).forEach(this::invalidarPagina));
+        });
+    }
+
+    /**
+     * Cambios de stock: ni la categoría ni la visibilidad cambian, así que el producto no entra ni
+     * sale de ninguna página y basta con las que ya lo contienen.
+     */
+    public void invalidateStock(Long id) {
+        runNowAndAfterCommit(() -> {
+            invalidarProducto(id);
+            json.invalidate(id);
+            generacionPaginas.incrementAndGet();
+            paginasPorProducto.get(id).forEach(this::invalidarPagina);
+        });
+    }
+
+    /**
+     * Altas masivas: descarta las páginas de las categorías afectadas y las de activos, en lugar de
+     * buscar las páginas de cada producto insertado.
+     */
+    public void invalidateCategorias(Set<String> categorias) {
+        runNowAndAfterCommit(() -> {
+            generacionPaginas.incrementAndGet();
+            paginasDe(ACTIVOS).forEach(this::invalidarPagina);
+            categorias.forEach(categoria ->
+                    paginasDe(new Lista(LISTA_CATEGORIA, categoria)).forEach(this::invalidarPagina));
+        });
+    }
+
+    /**
+     * Invalida todo lo que muestra datos del vendedor. Si cambió su estado, la visibilidad de sus
+     * productos en las páginas de activos cambia en rangos desconocidos y se descartan todas.
+     */
+    public void invalidateVendedor(Long vendedorId, boolean estadoCambiado) {
+        runNowAndAfterCommit(() -> {
+            generacionProductos.incrementAndGet();
+            productosPorVendedor.get(vendedorId).forEach(this::borrarProducto);
+            generacionPaginas.incrementAndGet();
+            paginasPorVendedor.get(vendedorId).forEach(this::invalidarPagina);
+            if (estadoCambiado) {
+                paginasDe(ACTIVOS).forEach(this::invalidarPagina);
+            }
+        });
+    }
+
+    private void invalidarProducto(Long id) {
+        generacionProductos.incrementAndGet();
+        borrarProducto(id);
+    }
+
+    private void borrarProducto(Long id) {
+        productos.asMap().computeIfPresent(id, (k, producto) -> {
+            desindexar(k, producto);
+            return null;
+        });
+    }
+
+    private void invalidarPagina(PaginaKey key) {
+        paginas.asMap().computeIfPresent(key, (k, pagina) -> {
+            desindexar(k, pagina);
+            return null;
+        });
+    }
+
+    private void indexar(Long id, ProductoDTO producto) {
+        productosPorVendedor.add(producto.vendedorId(), id);
+    }
+
+    private void desindexar(Long id, ProductoDTO producto) {
+        if (id != null && producto != null) {
+            productosPorVendedor.remove(producto.vendedorId(), id);
+        }
+    }
+
+    private void indexar(PaginaKey key, CursorPage<ProductoDTO> pagina) {
+        paginasPorLista.compute(key.lista(), (lista, porInicio) -> {
+            ConcurrentNavigableMap<PaginaKey, Long> mapa = porInicio != null ? porInicio : new ConcurrentSkipListMap<>();
+            mapa.put(key, hasta(pagina));
+            return mapa;
+        });
+        pagina.items().forEach(producto -> {
+            paginasPorProducto.add(producto.id(), key);
+            paginasPorVendedor.add(producto.vendedorId(), key);
+        });
+    }
+
+    private void desindexar(PaginaKey key, CursorPage<ProductoDTO> pagina) {
+        if (key == null || pagina == null) {
+            return;
+        }
+        paginasPorLista.computeIfPresent(key.lista(), (lista, porInicio) -> {
+            porInicio.remove(key);
+            return porInicio.isEmpty() ? null : porInicio;
+        });
+        pagina.items().forEach(producto -> {
+            paginasPorProducto.remove(producto.id(), key);
+            paginasPorVendedor.remove(producto.vendedorId(), key);
+        });
+    }
+
+    private List<PaginaKey> paginasDe(Lista lista) {
+        ConcurrentNavigableMap<PaginaKey, Long> porInicio = paginasPorLista.get(lista);
+        return porInicio == null ? List.of() : List.copyOf(porInicio.keySet());
+    }
+
+    // Una página keyset cubre los IDs (after, hasta]: solo se miran las que empiezan antes del ID
+    private List<PaginaKey> paginasQueCubren(Lista lista, Long id) {
+        ConcurrentNavigableMap<PaginaKey, Long> porInicio = paginasPorLista.get(lista);
+        if (porInicio == null) {
+            return List.of();
+        }
+        return porInicio.headMap(new PaginaKey(lista, id, Integer.MIN_VALUE)).entrySet().stream()
+                .filter(entry -> id <= entry.getValue())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, productos, "productos");
+        CaffeineCacheMetrics.monitor(registry, paginas, "paginas");
+        CaffeineCacheMetrics.monitor(registry, json, "productos-json");
+    }
+
+    public Map<String, CacheStatsDTO> stats() {
+        Map<String, CacheStatsDTO> stats = new LinkedHashMap<>();
+        stats.put("productos", CacheStatsDTO.from(productos.stats(), productos.estimatedSize()));
+        stats.put("paginas", CacheStatsDTO.from(paginas.stats(), paginas.estimatedSize()));
+        stats.put("json", CacheStatsDTO.from(json.stats(), json.estimatedSize()));
+        return stats;
+    }
+
+    // La última página no tiene límite superior: cubre también los IDs que se creen después
+    private static Long hasta(CursorPage<ProductoDTO> pagina) {
+        if (pagina.nextCursor() == null) {
+            return Long.MAX_VALUE;
+        }
+        return pagina.items().get(pagina.items().size() - 1).id();
+    }
+
+    private void runNowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Claves de una caché agrupadas por un atributo de su valor. Altas y bajas se hacen dentro de
+     * compute sobre el grupo, para que una baja que deja el grupo vacío no pierda un alta simultánea.
+     */
+    private static final class Indice<G, K> {
+
+        private final Map<G, Set<K>> grupos = new ConcurrentHashMap<>();
+
+        void add(G grupo, K key) {
+            grupos.compute(grupo, (g, keys) -> {
+                Set<K> conjunto = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                conjunto.add(key);
+                return conjunto;
+            });
+        }
+
+        void remove(G grupo, K key) {
+            grupos.computeIfPresent(grupo, (g, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+
+        List<K> get(G grupo) {
+            Set<K> keys = grupos.get(grupo);
+            return keys == null ? List.of() : List.copyOf(keys);
+        }
+    }
+}
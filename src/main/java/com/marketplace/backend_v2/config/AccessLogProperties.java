@@ -0,0 +1,30 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Muestreo del access log. Las lecturas con éxito se registran con {@code sampleRate} (o la tasa de
+ * su ruta en {@code sampleRates}, con la ruta tal como aparece en el {@code @RequestMapping});
+ * las escrituras con {@code writeSampleRate}. Errores y peticiones lentas se registran siempre.
+ */
+@ConfigurationProperties(prefix = "marketplace.access-log")
+public record AccessLogProperties(
+        Double sampleRate,
+        Double writeSampleRate,
+        Map<String, Double> sampleRates,
+        Duration slowThreshold
+) {
+    public AccessLogProperties {
+        if (sampleRate == null) sampleRate = 0.01;
+        if (writeSampleRate == null) writeSampleRate = 1.0;
+        if (sampleRates == null) sampleRates = Map.of();
+        if (slowThreshold == null) slowThreshold = Duration.ofMillis(500);
+    }
+
+    public double sampleRate(String ruta) {
+        return sampleRates.getOrDefault(ruta, sampleRate);
+    }
+}
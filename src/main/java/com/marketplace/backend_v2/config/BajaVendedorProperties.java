@@ -0,0 +1,16 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "marketplace.vendedores.baja")
+public record BajaVendedorProperties(
+        Integer chunkSize,
+        Duration retencion
+) {
+    public BajaVendedorProperties {
+        if (chunkSize == null || chunkSize < 1) chunkSize = 1_000;
+        if (retencion == null) retencion = Duration.ofHours(1);
+    }
+}
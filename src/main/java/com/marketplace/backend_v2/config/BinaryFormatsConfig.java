@@ -0,0 +1,64 @@
+package com.marketplace.backend_v2.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formatos binarios para clientes que los pidan con {@code Accept}: Smile
+ * ({@code application/x-jackson-smile}) y CBOR ({@code application/cbor}). Spring ya registra
+ * ambos conversores detrás del de JSON, así que sin {@code Accept} o con un {@code Accept} genérico
+ * la respuesta sigue siendo JSON; aquí se sustituyen en la misma posición por otros construidos con
+ * el {@link Jackson2ObjectMapperBuilder} de Boot, para que campos y tipos coincidan con los del JSON
+ * (fechas ISO-8601, {@code BigDecimal} exacto). Solo cambia la codificación.
+ * <p>
+ * No se declaran como beans: Spring Data REST arma la lista de su propio resolvedor de excepciones
+ * con los conversores del contexto y los pondría por delante del de JSON. Se le añaden al final, para
+ * que un 404 pedido en CBOR no falle primero en su {@code @ExceptionHandler}.
+ * <p>
+ * Smile comparte además los nombres de campo y los valores cortos repetidos
+ * ({@code vendedorNombre}, {@code categoria}) mediante referencias hacia atrás.
+ */
+@Configuration
+public class BinaryFormatsConfig implements WebMvcConfigurer, RepositoryRestConfigurer {
+
+    private final MappingJackson2SmileHttpMessageConverter smile;
+    private final MappingJackson2CborHttpMessageConverter cbor;
+
+    public BinaryFormatsConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        this.smile = new MappingJackson2SmileHttpMessageConverter(builders.getObject().factory(smileFactory).build());
+        this.cbor = new MappingJackson2CborHttpMessageConverter(builders.getObject().factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> switch (converter) {
+            case MappingJackson2SmileHttpMessageConverter previo -> smile;
+            case MappingJackson2CborHttpMessageConverter previo -> cbor;
+            default -> converter;
+        });
+    }
+
+    @Override
+    public void configureExceptionHandlerExceptionResolver(ExceptionHandlerExceptionResolver exceptionResolver) {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(exceptionResolver.getMessageConverters());
+        converters.add(smile);
+        converters.add(cbor);
+        exceptionResolver.setMessageConverters(converters);
+    }
+}
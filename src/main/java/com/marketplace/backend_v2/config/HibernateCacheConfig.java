@@ -0,0 +1,57 @@
+package com.marketplace.backend_v2.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Caché de segundo nivel de Hibernate sobre JCache (Caffeine). Las regiones se crean aquí con el
+ * tamaño y TTL de {@link HibernateCacheProperties}; Hibernate está configurado para fallar si una
+ * entidad o consulta usa una región que no existe, en lugar de crearla sin límites.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final List<String> REGIONES = List.of(
+            "vendedores", "vendedores-email", "vendedores-activos", "productos", "default-query-results-region");
+
+    // Guarda cuándo se modificó cada tabla por última vez: si se expulsa una entrada, la caché de
+    // consultas podría devolver resultados obsoletos, así que no tiene límite ni expiración
+    private static final String TIMESTAMPS = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(HibernateCacheProperties properties) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // URI propia por contexto: el CacheManager por defecto del proveedor es global a la JVM
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("marketplace-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : REGIONES) {
+            HibernateCacheProperties.Region config = properties.region(region);
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setStoreByValue(false);
+            configuration.setMaximumSize(OptionalLong.of(config.maxSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(config.ttl().toNanos()));
+            cacheManager.createCache(region, configuration);
+        }
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStoreByValue(false);
+        cacheManager.createCache(TIMESTAMPS, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
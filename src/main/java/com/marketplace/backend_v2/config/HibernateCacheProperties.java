@@ -0,0 +1,29 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "marketplace.cache.hibernate")
+public record HibernateCacheProperties(
+        Map<String, Region> regions
+) {
+    public HibernateCacheProperties {
+        if (regions == null) regions = Map.of();
+    }
+
+    public Region region(String name) {
+        return regions.getOrDefault(name, new Region(null, null));
+    }
+
+    public record Region(
+            Long maxSize,
+            Duration ttl
+    ) {
+        public Region {
+            if (maxSize == null) maxSize = 10_000L;
+            if (ttl == null) ttl = Duration.ofHours(1);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Imágenes de producto. {@code tamanos} son los lados mayores, en píxeles, de las variantes que se
+ * generan de cada imagen subida; {@code tamanoPrincipal} es la que se guarda en
+ * {@code Producto.imagenUrl}. El pool de procesamiento sigue el esquema del de hashing de
+ * contraseñas: tamaño de los núcleos, cola acotada y 503 si no hay hueco en {@code maxWait}.
+ */
+@ConfigurationProperties(prefix = "marketplace.imagenes")
+public record ImagenProperties(
+        Path directorio,
+        List<Integer> tamanos,
+        Integer tamanoPrincipal,
+        Float calidad,
+        DataSize maxBytes,
+        Long maxPixeles,
+        Integer poolSize,
+        Integer queueCapacity,
+        Duration maxWait,
+        Duration retryAfter,
+        Duration cacheMaxAge
+) {
+    public ImagenProperties {
+        if (directorio == null) directorio = Path.of("data", "imagenes");
+        if (tamanos == null || tamanos.isEmpty()) tamanos = List.of(160, 320, 640, 1280);
+        tamanos = tamanos.stream().distinct().sorted().toList();
+        if (tamanoPrincipal == null) tamanoPrincipal = 320;
+        if (calidad == null) calidad = 0.82f;
+        if (maxBytes == null) maxBytes = DataSize.ofMegabytes(10);
+        if (maxPixeles == null) maxPixeles = 40_000_000L;
+        if (poolSize == null || poolSize < 1) poolSize = Runtime.getRuntime().availableProcessors();
+        if (queueCapacity == null) queueCapacity = 16;
+        if (maxWait == null) maxWait = Duration.ofSeconds(30);
+        if (retryAfter == null) retryAfter = Duration.ofSeconds(5);
+        if (cacheMaxAge == null) cacheMaxAge = Duration.ofDays(365);
+        if (!tamanos.contains(tamanoPrincipal)) {
+            throw new IllegalArgumentException("marketplace.imagenes.tamano-principal debe ser uno de " + tamanos);
+        }
+    }
+}
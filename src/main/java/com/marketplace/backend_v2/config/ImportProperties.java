@@ -0,0 +1,14 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "marketplace.import")
+public record ImportProperties(
+        Integer chunkSize,
+        Integer maxErroresReportados
+) {
+    public ImportProperties {
+        if (chunkSize == null || chunkSize < 1) chunkSize = 1_000;
+        if (maxErroresReportados == null) maxErroresReportados = 1_000;
+    }
+}
@@ -0,0 +1,20 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "marketplace.jwt")
+public record JwtProperties(
+        String secret,
+        Duration expiration,
+        String issuer
+) {
+    public JwtProperties {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalArgumentException("marketplace.jwt.secret debe tener al menos 32 caracteres");
+        }
+        if (expiration == null) expiration = Duration.ofHours(8);
+        if (issuer == null) issuer = "marketplace";
+    }
+}
@@ -0,0 +1,56 @@
+package com.marketplace.backend_v2.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernateQueriesEndpoint hibernateQueriesEndpoint(EntityManagerFactory entityManagerFactory) {
+        return new HibernateQueriesEndpoint(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    /**
+     * Boot exporta las estadísticas globales de Hibernate como métricas (consultas ejecutadas,
+     * cargas de entidades, caché de segundo nivel, tiempo máximo de consulta), pero el texto de la
+     * consulta no cabe en una métrica. {@code /actuator/hibernatequeries} lista las consultas JPQL
+     * ordenadas por tiempo máximo.
+     */
+    @Endpoint(id = "hibernatequeries")
+    public static class HibernateQueriesEndpoint {
+
+        private static final int MAX_CONSULTAS = 20;
+
+        private final Statistics statistics;
+
+        public HibernateQueriesEndpoint(Statistics statistics) {
+            this.statistics = statistics;
+        }
+
+        public record Consulta(String query, long ejecuciones, long filas, double mediaMs, long maxMs) {}
+
+        @ReadOperation
+        public List<Consulta> consultas() {
+            return Arrays.stream(statistics.getQueries())
+                    .map(query -> {
+                        QueryStatistics stats = statistics.getQueryStatistics(query);
+                        return new Consulta(query, stats.getExecutionCount(), stats.getExecutionRowCount(),
+                                stats.getExecutionAvgTimeAsDouble(), stats.getExecutionMaxTime());
+                    })
+                    .sorted(Comparator.comparingLong(Consulta::maxMs).reversed())
+                    .limit(MAX_CONSULTAS)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "marketplace.pagination")
+public record PaginationProperties(
+        Integer defaultLimit,
+        Integer maxLimit
+) {
+    public PaginationProperties {
+        if (defaultLimit == null) defaultLimit = 50;
+        if (maxLimit == null) maxLimit = 500;
+    }
+
+    public int resolveLimit(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultLimit;
+        }
+        return Math.min(requested, maxLimit);
+    }
+}
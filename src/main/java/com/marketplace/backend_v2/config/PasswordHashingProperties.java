@@ -0,0 +1,22 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "marketplace.security.password-hashing")
+public record PasswordHashingProperties(
+        Integer bcryptStrength,
+        Integer poolSize,
+        Integer queueCapacity,
+        Duration maxWait,
+        Duration retryAfter
+) {
+    public PasswordHashingProperties {
+        if (bcryptStrength == null) bcryptStrength = 10;
+        if (poolSize == null || poolSize < 1) poolSize = Runtime.getRuntime().availableProcessors();
+        if (queueCapacity == null) queueCapacity = 64;
+        if (maxWait == null) maxWait = Duration.ofSeconds(5);
+        if (retryAfter == null) retryAfter = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,21 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "marketplace.cache.productos")
+public record ProductoCacheProperties(
+        Long maxProductos,
+        Long maxPaginas,
+        DataSize maxJson,
+        Duration ttl
+) {
+    public ProductoCacheProperties {
+        if (maxProductos == null) maxProductos = 10_000L;
+        if (maxPaginas == null) maxPaginas = 1_000L;
+        if (maxJson == null) maxJson = DataSize.ofMegabytes(64);
+        if (ttl == null) ttl = Duration.ofMinutes(10);
+    }
+}
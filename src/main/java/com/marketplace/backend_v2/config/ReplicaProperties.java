@@ -0,0 +1,34 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Réplica de lectura. Sin {@code url} no hay enrutado y todo va a {@code spring.datasource}; el
+ * usuario y la contraseña, si no se indican, son los del primario. {@code maxStaleness} es el
+ * retraso máximo tolerado antes de devolver las lecturas al primario y {@code stickiness} cuánto
+ * tiempo lee del primario un cliente después de escribir.
+ */
+@ConfigurationProperties(prefix = "marketplace.datasource.replica")
+public record ReplicaProperties(
+        String url,
+        String username,
+        String password,
+        Integer maximumPoolSize,
+        Duration maxStaleness,
+        Duration stickiness,
+        Duration lagCheckInterval
+) {
+    public ReplicaProperties {
+        if (maximumPoolSize == null) maximumPoolSize = 10;
+        if (maxStaleness == null) maxStaleness = Duration.ofSeconds(5);
+        if (stickiness == null) stickiness = Duration.ofSeconds(10);
+        if (lagCheckInterval == null) lagCheckInterval = Duration.ofSeconds(1);
+        // El retraso medido envejece entre comprobaciones; con un intervalo mayor nunca se leería de la réplica
+        if (lagCheckInterval.compareTo(maxStaleness) >= 0) {
+            throw new IllegalArgumentException(
+                    "marketplace.datasource.replica.lag-check-interval debe ser menor que max-staleness");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "marketplace.stats")
+public record StatsProperties(
+        Duration reconciliationInterval,
+        Integer reconciliationChunkSize,
+        Duration foldInterval,
+        Integer foldChunkSize
+) {
+    public StatsProperties {
+        if (reconciliationInterval == null) reconciliationInterval = Duration.ofHours(1);
+        if (reconciliationChunkSize == null || reconciliationChunkSize < 1) reconciliationChunkSize = 500;
+        if (foldInterval == null) foldInterval = Duration.ofSeconds(10);
+        if (foldChunkSize == null || foldChunkSize < 1) foldChunkSize = 10_000;
+    }
+}
@@ -0,0 +1,86 @@
+package com.marketplace.backend_v2.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta hilos virtuales que bloquean a su hilo portador (p. ej. una espera dentro de un bloque
+ * {@code synchronized}) escuchando el evento JFR {@code jdk.VirtualThreadPinned}. Cada pila distinta
+ * se registra una vez en WARN y después solo se cuenta; al parar la aplicación se vuelca el resumen.
+ * Solo se activa con {@code spring.threads.virtual.enabled=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+
+    private final VirtualThreadsProperties properties;
+    private final Map<String, LongAdder> porPila = new ConcurrentHashMap<>();
+    private final RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadsProperties properties) {
+        this.properties = properties;
+        this.stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(properties.pinningThreshold()).withStackTrace();
+        stream.onEvent(EVENTO, this::onPinned);
+        stream.startAsync();
+        log.info("Monitor de pinning de hilos virtuales activo (umbral {})", properties.pinningThreshold());
+    }
+
+    public Map<String, Long> snapshot() {
+        return porPila.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String pila = formatStack(event.getStackTrace());
+        // Avisa quien da de alta la pila, no quien ve el contador a 1: dos primeros eventos simultáneos lo verían a 2
+        LongAdder nuevo = new LongAdder();
+        LongAdder previo = porPila.putIfAbsent(pila, nuevo);
+        (previo != null ? previo : nuevo).increment();
+        if (previo == null) {
+            log.warn("Hilo virtual bloqueó su portador durante {} ms en:\n{}",
+                    event.getDuration().toMillis(), pila);
+        }
+    }
+
+    // Omite los marcos del propio mecanismo de parking para que la pila empiece en el código que bloquea
+    private String formatStack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\tat <sin pila>";
+        }
+        return stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .filter(frame -> !frame.startsWith("java.lang.VirtualThread")
+                        && !frame.startsWith("jdk.internal.")
+                        && !frame.startsWith("java.util.concurrent.locks."))
+                .limit(properties.pinningStackDepth())
+                .map(frame -> "\tat " + frame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stream.close();
+        if (!porPila.isEmpty()) {
+            log.warn("Resumen de pinning de hilos virtuales ({} pilas distintas):", porPila.size());
+            snapshot().forEach((pila, veces) -> log.warn("{} veces en:\n{}", veces, pila));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.marketplace.backend_v2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "marketplace.virtual-threads")
+public record VirtualThreadsProperties(
+        Duration pinningThreshold,
+        Integer pinningStackDepth
+) {
+    public VirtualThreadsProperties {
+        if (pinningThreshold == null) pinningThreshold = Duration.ofMillis(20);
+        if (pinningStackDepth == null || pinningStackDepth < 1) pinningStackDepth = 8;
+    }
+}
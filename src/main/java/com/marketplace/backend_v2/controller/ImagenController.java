@@ -0,0 +1,150 @@
+package com.marketplace.backend_v2.controller;
+
+import com.marketplace.backend_v2.config.ImagenProperties;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.imagen.ImagenStore;
+import com.marketplace.backend_v2.web.ETags;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Variantes de imagen de {@link ImagenStore}. Los ficheros son inmutables, así que la respuesta
+ * se cachea un año y el ETag sale del propio ID.
+ * <p>
+ * El cuerpo no pasa por la JVM cuando Tomcat ofrece sendfile: el controlador solo indica fichero y
+ * rango en los atributos de la petición y el conector lo envía con {@code FileChannel.transferTo}
+ * al terminar. Por debajo de {@link #SENDFILE_MIN_BYTES}, o sin sendfile, se copia desde un
+ * {@link FileChannel}.
+ */
+@RestController
+@RequestMapping("/imagenes")
+@CrossOrigin(origins = "*")
+public class ImagenController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Mismo umbral que el DefaultServlet de Tomcat: en ficheros pequeños sendfile cuesta más que copiar
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private final ImagenStore imagenStore;
+    private final String cacheControl;
+    private final Counter enviosSendfile;
+    private final Counter enviosCopia;
+
+    public ImagenController(ImagenStore imagenStore, ImagenProperties properties, MeterRegistry meterRegistry) {
+        this.imagenStore = imagenStore;
+        this.cacheControl = CacheControl.maxAge(properties.cacheMaxAge()).cachePublic().immutable().getHeaderValue();
+        this.enviosSendfile = meterRegistry.counter("marketplace.imagenes.envios", "modo", "sendfile");
+        this.enviosCopia = meterRegistry.counter("marketplace.imagenes.envios", "modo", "copia");
+    }
+
+    @GetMapping("/{id}/{tamano}.jpg")
+    public void getImagen(@PathVariable String id, @PathVariable int tamano,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path ruta = imagenStore.find(id, tamano)
+                .orElseThrow(() -> new NotFoundException("Imagen no encontrada: " + id + "/" + tamano));
+        long longitud = ruta.toFile().length();
+        String etag = ETags.imagen(id, tamano);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long inicio = 0;
+        long fin = longitud - 1;
+        HttpRange rango = rango(request, etag);
+        if (rango != null) {
+            if (longitud == 0 || !satisfacible(rango, longitud)) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + longitud);
+                return;
+            }
+            inicio = rango.getRangeStart(longitud);
+            fin = rango.getRangeEnd(longitud);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + longitud);
+        }
+        long bytes = fin - inicio + 1;
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(bytes);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || bytes == 0) {
+            return;
+        }
+
+        if (bytes >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, ruta.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, inicio);
+            // Fin exclusivo, como lo espera Tomcat
+            request.setAttribute(SENDFILE_END, fin + 1);
+            enviosSendfile.increment();
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = inicio;
+            long restante = bytes;
+            while (restante > 0) {
+                long enviados = canal.transferTo(posicion, restante, salida);
+                if (enviados <= 0) {
+                    break;
+                }
+                posicion += enviados;
+                restante -= enviados;
+            }
+        }
+        enviosCopia.increment();
+    }
+
+    /*
+     * Solo se atiende un rango. Varios rangos, una cabecera mal formada o un If-Range que no
+     * coincide con el ETag se responden con el fichero completo, como permite RFC 9110.
+     */
+    private HttpRange rango(HttpServletRequest request, String etag) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range == null || (ifRange != null && !ifRange.strip().equals(etag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> rangos = HttpRange.parseRanges(range);
+            return rangos.size() == 1 ? rangos.getFirst() : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean satisfacible(HttpRange rango, long longitud) {
+        try {
+            return rango.getRangeStart(longitud) <= rango.getRangeEnd(longitud);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,18 +1,39 @@
 package com.marketplace.backend_v2.controller;
 
+import com.marketplace.backend_v2.cache.CatalogVersion;
+import com.marketplace.backend_v2.cache.ProductoCache;
 import com.marketplace.backend_v2.dto.ApiResponse;
+import com.marketplace.backend_v2.dto.CacheStatsDTO;
+import com.marketplace.backend_v2.dto.CursorPage;
+import com.marketplace.backend_v2.dto.ExportFormat;
+import com.marketplace.backend_v2.dto.ImagenDTO;
+import com.marketplace.backend_v2.dto.ImportDTO;
 import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.dto.StatsDTO;
+import com.marketplace.backend_v2.dto.StockDTO;
+import com.marketplace.backend_v2.service.ProductoExportService;
+import com.marketplace.backend_v2.service.ProductoImagenService;
+import com.marketplace.backend_v2.service.ProductoImportService;
 import com.marketplace.backend_v2.service.ProductoService;
+import com.marketplace.backend_v2.service.StatsService;
+import com.marketplace.backend_v2.service.StockService;
+import com.marketplace.backend_v2.web.ETags;
+import com.marketplace.backend_v2.web.NegotiatedETags;
+import com.marketplace.backend_v2.web.JsonFragment;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
-@Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/productos")
@@ -20,153 +41,192 @@ import java.util.List;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final ProductoExportService productoExportService;
+    private final ProductoImportService productoImportService;
+    private final ProductoImagenService productoImagenService;
+    private final ProductoCache productoCache;
+    private final StockService stockService;
+    private final StatsService statsService;
+    private final CatalogVersion catalogVersion;
+    private final NegotiatedETags negotiatedETags;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProductoDTO>>> getAllProductos() {
-        log.info("GET /productos - Obteniendo todos los productos");
-        try {
-            List<ProductoDTO> productos = productoService.findAll();
-            return ResponseEntity.ok(ApiResponse.success(productos));
-        } catch (Exception e) {
-            log.error("Error al obtener productos: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener productos: " + e.getMessage()));
-        }
+    public ResponseEntity<ApiResponse<List<JsonFragment>>> getAllProductos(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return negotiatedETags.listado(catalogVersion.productosEtag(), ifNoneMatch,
+                () -> page(productoService.findAll(after, limit)));
     }
 
     @GetMapping("/activos")
-    public ResponseEntity<ApiResponse<List<ProductoDTO>>> getProductosActivos() {
-        log.info("GET /productos/activos - Obteniendo productos activos");
-        try {
-            List<ProductoDTO> productos = productoService.findProductosActivos();
-            return ResponseEntity.ok(ApiResponse.success(productos));
-        } catch (Exception e) {
-            log.error("Error al obtener productos activos: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener productos activos: " + e.getMessage()));
-        }
+    public ResponseEntity<ApiResponse<List<JsonFragment>>> getProductosActivos(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return negotiatedETags.listado(catalogVersion.productosEtag(), ifNoneMatch,
+                () -> page(productoService.findProductosActivos(after, limit)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProductos(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = out -> productoExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"productos." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<JsonFragment>>> searchProductos(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return negotiatedETags.listado(catalogVersion.productosEtag(), ifNoneMatch,
+                () -> ApiResponse.success(productoCache.getJson(productoService.search(q, limit))));
+    }
+
+    @GetMapping("/search/suggest")
+    public ResponseEntity<ApiResponse<List<String>>> suggestTerminos(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(productoService.suggest(prefix, limit)));
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<Map<String, CacheStatsDTO>>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(productoCache.stats()));
+    }
+
+    @GetMapping("/categorias/stats")
+    public ResponseEntity<ApiResponse<List<StatsDTO.Categoria>>> getCategoriasStats() {
+        return ResponseEntity.ok(ApiResponse.success(statsService.findCategorias()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductoDTO>> getProductoById(@PathVariable Long id) {
-        log.info("GET /productos/{} - Obteniendo producto por ID", id);
-        try {
-            ProductoDTO producto = productoService.findById(id);
-            return ResponseEntity.ok(ApiResponse.success(producto));
-        } catch (RuntimeException e) {
-            log.warn("Producto no encontrado con ID: {}", id);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            log.error("Error al obtener producto con ID {}: {}", id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener producto: " + e.getMessage()));
+    public ResponseEntity<ApiResponse<JsonFragment>> getProductoById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ProductoDTO producto = productoService.findById(id);
+        String etag = negotiatedETags.of(ETags.producto(producto));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
         }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(productoCache.getJson(producto)));
     }
 
     @GetMapping("/vendedor/{vendedorId}")
-    public ResponseEntity<ApiResponse<List<ProductoDTO>>> getProductosByVendedor(
-            @PathVariable Long vendedorId) {
-        log.info("GET /productos/vendedor/{} - Obteniendo productos por vendedor", vendedorId);
-        try {
-            List<ProductoDTO> productos = productoService.findByVendedorId(vendedorId);
-            return ResponseEntity.ok(ApiResponse.success(productos));
-        } catch (Exception e) {
-            log.error("Error al obtener productos del vendedor {}: {}", vendedorId, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener productos del vendedor: " + e.getMessage()));
-        }
+    public ResponseEntity<ApiResponse<List<JsonFragment>>> getProductosByVendedor(
+            @PathVariable Long vendedorId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return negotiatedETags.listado(catalogVersion.productosEtag(), ifNoneMatch,
+                () -> page(productoService.findByVendedorId(vendedorId, after, limit)));
     }
 
     @GetMapping("/categoria/{categoria}")
-    public ResponseEntity<ApiResponse<List<ProductoDTO>>> getProductosByCategoria(
-            @PathVariable String categoria) {
-        log.info("GET /productos/categoria/{} - Obteniendo productos por categoría", categoria);
-        try {
-            List<ProductoDTO> productos = productoService.findByCategoria(categoria);
-            return ResponseEntity.ok(ApiResponse.success(productos));
-        } catch (Exception e) {
-            log.error("Error al obtener productos por categoría {}: {}", categoria, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener productos por categoría: " + e.getMessage()));
-        }
+    public ResponseEntity<ApiResponse<List<JsonFragment>>> getProductosByCategoria(
+            @PathVariable String categoria,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return negotiatedETags.listado(catalogVersion.productosEtag(), ifNoneMatch,
+                () -> page(productoService.findByCategoria(categoria, after, limit)));
     }
 
     @GetMapping("/stock")
-    public ResponseEntity<ApiResponse<List<ProductoDTO>>> getProductosConStock() {
-        log.info("GET /productos/stock - Obteniendo productos con stock disponible");
-        try {
-            List<ProductoDTO> productos = productoService.findProductosConStock();
-            return ResponseEntity.ok(ApiResponse.success(productos));
-        } catch (Exception e) {
-            log.error("Error al obtener productos con stock: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener productos con stock: " + e.getMessage()));
-        }
+    public ResponseEntity<ApiResponse<List<JsonFragment>>> getProductosConStock(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return negotiatedETags.listado(catalogVersion.productosEtag(), ifNoneMatch,
+                () -> page(productoService.findProductosConStock(after, limit)));
     }
 
     @PostMapping
     public ResponseEntity<ApiResponse<ProductoDTO>> createProducto(
             @Valid @RequestBody ProductoDTO productoDTO) {
-        log.info("POST /productos - Creando nuevo producto");
-        try {
-            ProductoDTO producto = productoService.create(productoDTO);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(ApiResponse.success("Producto creado exitosamente", producto));
-        } catch (RuntimeException e) {
-            log.warn("Error al crear producto: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            log.error("Error interno al crear producto: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al crear producto: " + e.getMessage()));
-        }
+        ProductoDTO producto = productoService.create(productoDTO);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Producto creado exitosamente", producto));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ImportDTO.Resultado>> importProductos(
+            @RequestParam Long vendedorId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "csv") String format) throws IOException {
+        ImportDTO.Resultado resultado = productoImportService.importar(
+                vendedorId, ExportFormat.from(format), file.getInputStream());
+        return ResponseEntity.ok(ApiResponse.success("Importación finalizada", resultado));
+    }
+
+    // Genera las variantes y apunta imagenUrl a la principal; la misma imagen no se procesa dos veces
+    @PostMapping(value = "/{id}/imagen", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ImagenDTO.Resultado>> uploadImagen(
+            @PathVariable Long id,
+            @RequestParam("file") MultipartFile file) throws IOException {
+        ImagenDTO.Resultado resultado = productoImagenService.guardar(id, file.getInputStream());
+        return ResponseEntity.ok(ApiResponse.success("Imagen procesada exitosamente", resultado));
+    }
+
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<ApiResponse<Void>> reserveStock(
+            @PathVariable Long id,
+            @Valid @RequestBody StockDTO.MovimientoRequest request) {
+        stockService.reserve(id, request.cantidad());
+        return ResponseEntity.ok(ApiResponse.success("Stock reservado exitosamente", null));
+    }
+
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<ApiResponse<Void>> releaseStock(
+            @PathVariable Long id,
+            @Valid @RequestBody StockDTO.MovimientoRequest request) {
+        stockService.release(id, request.cantidad());
+        return ResponseEntity.ok(ApiResponse.success("Stock liberado exitosamente", null));
+    }
+
+    @PostMapping("/stock/reserve")
+    public ResponseEntity<ApiResponse<Void>> reserveStockLote(
+            @Valid @RequestBody StockDTO.LoteRequest request) {
+        stockService.reserve(request.items());
+        return ResponseEntity.ok(ApiResponse.success("Stock reservado exitosamente", null));
+    }
+
+    @PostMapping("/stock/release")
+    public ResponseEntity<ApiResponse<Void>> releaseStockLote(
+            @Valid @RequestBody StockDTO.LoteRequest request) {
+        stockService.release(request.items());
+        return ResponseEntity.ok(ApiResponse.success("Stock liberado exitosamente", null));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<ProductoDTO>> updateProducto(
             @PathVariable Long id,
-            @Valid @RequestBody ProductoDTO productoDTO) {
-        log.info("PUT /productos/{} - Actualizando producto", id);
-        try {
-            ProductoDTO producto = productoService.update(id, productoDTO);
-            return ResponseEntity.ok(ApiResponse.success("Producto actualizado exitosamente", producto));
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("no encontrado")) {
-                log.warn("Producto no encontrado para actualizar: {}", id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(ApiResponse.error(e.getMessage()));
-            }
-            log.warn("Error al actualizar producto: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            log.error("Error interno al actualizar producto: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al actualizar producto: " + e.getMessage()));
-        }
+            @Valid @RequestBody ProductoDTO productoDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductoDTO producto = productoService.update(id, productoDTO, ifMatch);
+        return ResponseEntity.ok()
+                .eTag(ETags.producto(producto))
+                .body(ApiResponse.success("Producto actualizado exitosamente", producto));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteProducto(@PathVariable Long id) {
-        log.info("DELETE /productos/{} - Eliminando producto", id);
-        try {
-            productoService.deleteById(id);
-            return ResponseEntity.ok(ApiResponse.success("Producto eliminado exitosamente", null));
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("no encontrado")) {
-                log.warn("Producto no encontrado para eliminar: {}", id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(ApiResponse.error(e.getMessage()));
-            }
-            log.warn("Error al eliminar producto: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            log.error("Error interno al eliminar producto: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al eliminar producto: " + e.getMessage()));
-        }
+        productoService.deleteById(id);
+        return ResponseEntity.ok(ApiResponse.success("Producto eliminado exitosamente", null));
+    }
+
+    // Las lecturas del catálogo devuelven el JSON ya serializado de cada producto (ProductoCache.getJson)
+    private ApiResponse<List<JsonFragment>> page(CursorPage<ProductoDTO> productos) {
+        return ApiResponse.page(new CursorPage<>(productoCache.getJson(productos.items()), productos.nextCursor()));
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
     }
-}
\ No newline at end of file
+}
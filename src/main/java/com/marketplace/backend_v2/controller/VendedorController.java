@@ -1,18 +1,25 @@
 package com.marketplace.backend_v2.controller;
 
+import com.marketplace.backend_v2.cache.CatalogVersion;
 import com.marketplace.backend_v2.dto.ApiResponse;
+import com.marketplace.backend_v2.dto.BajaVendedorDTO;
+import com.marketplace.backend_v2.dto.StatsDTO;
 import com.marketplace.backend_v2.dto.VendedorDTO;
+import com.marketplace.backend_v2.service.StatsService;
+import com.marketplace.backend_v2.service.VendedorBajaService;
 import com.marketplace.backend_v2.service.VendedorService;
+import com.marketplace.backend_v2.web.ETags;
+import com.marketplace.backend_v2.web.NegotiatedETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
-@Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/vendedores")
@@ -20,112 +27,90 @@ import java.util.List;
 public class VendedorController {
 
     private final VendedorService vendedorService;
+    private final CatalogVersion catalogVersion;
+    private final NegotiatedETags negotiatedETags;
+    private final StatsService statsService;
+    private final VendedorBajaService vendedorBajaService;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<VendedorDTO>>> getAllVendedores() {
-        log.info("GET /vendedores - Obteniendo todos los vendedores");
-        try {
-            List<VendedorDTO> vendedores = vendedorService.findAll();
-            return ResponseEntity.ok(ApiResponse.success(vendedores));
-        } catch (Exception e) {
-            log.error("Error al obtener vendedores: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener vendedores: " + e.getMessage()));
-        }
+    public ResponseEntity<ApiResponse<List<VendedorDTO>>> getAllVendedores(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return negotiatedETags.listado(catalogVersion.vendedoresEtag(), ifNoneMatch,
+                () -> ApiResponse.page(vendedorService.findAll(after, limit)));
     }
 
     @GetMapping("/activos")
-    public ResponseEntity<ApiResponse<List<VendedorDTO>>> getVendedoresActivos() {
-        log.info("GET /vendedores/activos - Obteniendo vendedores activos");
-        try {
-            List<VendedorDTO> vendedores = vendedorService.findByEstadoTrue();
-            return ResponseEntity.ok(ApiResponse.success(vendedores));
-        } catch (Exception e) {
-            log.error("Error al obtener vendedores activos: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener vendedores activos: " + e.getMessage()));
-        }
+    public ResponseEntity<ApiResponse<List<VendedorDTO>>> getVendedoresActivos(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return negotiatedETags.listado(catalogVersion.vendedoresEtag(), ifNoneMatch,
+                () -> ApiResponse.page(vendedorService.findByEstadoTrue(after, limit)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<VendedorDTO>> getVendedorById(@PathVariable Long id) {
-        log.info("GET /vendedores/{} - Obteniendo vendedor por ID", id);
-        try {
-            VendedorDTO vendedor = vendedorService.findById(id);
-            return ResponseEntity.ok(ApiResponse.success(vendedor));
-        } catch (RuntimeException e) {
-            log.warn("Vendedor no encontrado con ID: {}", id);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            log.error("Error al obtener vendedor con ID {}: {}", id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al obtener vendedor: " + e.getMessage()));
+    public ResponseEntity<ApiResponse<VendedorDTO>> getVendedorById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        VendedorDTO vendedor = vendedorService.findById(id);
+        String etag = negotiatedETags.of(ETags.vendedor(vendedor));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
         }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(vendedor));
+    }
+
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ApiResponse<StatsDTO.Vendedor>> getVendedorStats(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(statsService.findVendedor(id)));
     }
 
     @PostMapping
     public ResponseEntity<ApiResponse<VendedorDTO>> createVendedor(
             @Valid @RequestBody VendedorDTO vendedorDTO) {
-        log.info("POST /vendedores - Creando nuevo vendedor");
-        try {
-            VendedorDTO vendedor = vendedorService.create(vendedorDTO);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(ApiResponse.success("Vendedor creado exitosamente", vendedor));
-        } catch (RuntimeException e) {
-            log.warn("Error al crear vendedor: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            log.error("Error interno al crear vendedor: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al crear vendedor: " + e.getMessage()));
-        }
+        VendedorDTO vendedor = vendedorService.create(vendedorDTO);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Vendedor creado exitosamente", vendedor));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<VendedorDTO>> updateVendedor(
             @PathVariable Long id,
-            @Valid @RequestBody VendedorDTO vendedorDTO) {
-        log.info("PUT /vendedores/{} - Actualizando vendedor", id);
-        try {
-            VendedorDTO vendedor = vendedorService.update(id, vendedorDTO);
-            return ResponseEntity.ok(ApiResponse.success("Vendedor actualizado exitosamente", vendedor));
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("no encontrado")) {
-                log.warn("Vendedor no encontrado para actualizar: {}", id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(ApiResponse.error(e.getMessage()));
-            }
-            log.warn("Error al actualizar vendedor: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            log.error("Error interno al actualizar vendedor: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al actualizar vendedor: " + e.getMessage()));
-        }
+            @Valid @RequestBody VendedorDTO vendedorDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        VendedorDTO vendedor = vendedorService.update(id, vendedorDTO, ifMatch);
+        return ResponseEntity.ok()
+                .eTag(ETags.vendedor(vendedor))
+                .body(ApiResponse.success("Vendedor actualizado exitosamente", vendedor));
     }
 
+    /**
+     * Con {@code async=true} la baja sigue en segundo plano y la respuesta es 202 con la URL de su
+     * progreso. También es 202 si ya había una baja en curso para el vendedor.
+     */
     @DeleteMapping("/{id}")
-    public ResponseEntity<ApiResponse<Void>> deleteVendedor(@PathVariable Long id) {
-        log.info("DELETE /vendedores/{} - Eliminando vendedor", id);
-        try {
-            vendedorService.deleteById(id);
-            return ResponseEntity.ok(ApiResponse.success("Vendedor eliminado exitosamente", null));
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("no encontrado")) {
-                log.warn("Vendedor no encontrado para eliminar: {}", id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(ApiResponse.error(e.getMessage()));
-            }
-            log.warn("Error al eliminar vendedor: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            log.error("Error interno al eliminar vendedor: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Error al eliminar vendedor: " + e.getMessage()));
+    public ResponseEntity<ApiResponse<BajaVendedorDTO.Progreso>> deleteVendedor(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean async) {
+        BajaVendedorDTO.Progreso baja = async
+                ? vendedorBajaService.eliminarAsync(id)
+                : vendedorBajaService.eliminar(id);
+        if (baja.estado() == BajaVendedorDTO.Estado.EN_CURSO) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/vendedores/bajas/" + baja.id()))
+                    .body(ApiResponse.success("Baja del vendedor en curso", baja));
         }
+        return ResponseEntity.ok(ApiResponse.success("Vendedor eliminado exitosamente", baja));
+    }
+
+    @GetMapping("/bajas/{bajaId}")
+    public ResponseEntity<ApiResponse<BajaVendedorDTO.Progreso>> getBaja(@PathVariable String bajaId) {
+        return ResponseEntity.ok(ApiResponse.success(vendedorBajaService.findById(bajaId)));
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
     }
-}
\ No newline at end of file
+}
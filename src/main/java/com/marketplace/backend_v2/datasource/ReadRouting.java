@@ -0,0 +1,83 @@
+package com.marketplace.backend_v2.datasource;
+
+/**
+ * Fuerza el primario para las transacciones de solo lectura del hilo actual mientras el ámbito
+ * esté abierto. Lo usan las peticiones de un cliente que acaba de escribir y las lecturas que
+ * rellenan estructuras compartidas (cachés, índice de búsqueda): una copia tomada de una réplica
+ * retrasada seguiría sirviéndose a todos después de que la réplica se pusiera al día.
+ * <p>
+ * {@link #origen()} anota si alguna lectura del hilo salió de la réplica, para no etiquetar con la
+ * versión actual del catálogo unos datos que pueden ser anteriores a ella.
+ * <p>
+ * Sin réplica configurada no tiene efecto.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+    private static final ThreadLocal<Origen> ORIGEN = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isPrimario() {
+        return PRIMARIO.get() != null;
+    }
+
+    public static Scope primario() {
+        boolean anidado = isPrimario();
+        PRIMARIO.set(Boolean.TRUE);
+        return () -> {
+            if (!anidado) {
+                PRIMARIO.remove();
+            }
+        };
+    }
+
+    public static Origen origen() {
+        Origen origen = new Origen(ORIGEN.get());
+        ORIGEN.set(origen);
+        return origen;
+    }
+
+    // ReplicaRoutingDataSource acaba de dar una conexión de la réplica
+    static void replicaElegida() {
+        Origen origen = ORIGEN.get();
+        if (origen != null) {
+            origen.replica = true;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Ámbito que registra si el hilo leyó de la réplica mientras estuvo abierto. Al cerrarse, un
+     * ámbito anidado pasa lo que vio al que lo contiene.
+     */
+    public static final class Origen implements AutoCloseable {
+
+        private final Origen exterior;
+        private boolean replica;
+
+        private Origen(Origen exterior) {
+            this.exterior = exterior;
+        }
+
+        public boolean isReplica() {
+            return replica;
+        }
+
+        @Override
+        public void close() {
+            if (exterior == null) {
+                ORIGEN.remove();
+                return;
+            }
+            exterior.replica |= replica;
+            ORIGEN.set(exterior);
+        }
+    }
+}
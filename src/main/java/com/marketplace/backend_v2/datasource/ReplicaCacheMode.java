@@ -0,0 +1,50 @@
+package com.marketplace.backend_v2.datasource;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Pone en {@link CacheMode#GET} la sesión de Hibernate de la transacción en curso cuando
+ * {@link ReplicaRoutingDataSource} le da una conexión de la réplica: la sesión sigue leyendo de la
+ * caché de segundo nivel, pero lo que cargue de una réplica retrasada no entra en ella, porque
+ * desde ahí se serviría a todos hasta que caducase. El modo anterior se restaura al terminar.
+ * <p>
+ * Se decide al pedir la conexión y no al empezar la transacción, así que las lecturas que abren
+ * {@link ReadRouting#primario()} dentro de un método {@code readOnly} siguen rellenando la caché.
+ */
+public class ReplicaCacheMode {
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    // Perezoso: la factoría de EntityManager depende del DataSource que usa esta clase
+    public ReplicaCacheMode(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void replicaElegida() {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (factory == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !(TransactionSynchronizationManager.getResource(factory) instanceof EntityManagerHolder holder)) {
+            return;
+        }
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        CacheMode anterior = session.getCacheMode();
+        if (anterior == CacheMode.GET || anterior == CacheMode.IGNORE) {
+            return;
+        }
+        session.setCacheMode(CacheMode.GET);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (session.isOpen()) {
+                    session.setCacheMode(anterior);
+                }
+            }
+        });
+    }
+}
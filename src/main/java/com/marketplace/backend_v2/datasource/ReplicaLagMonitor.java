@@ -0,0 +1,90 @@
+package com.marketplace.backend_v2.datasource;
+
+import com.marketplace.backend_v2.config.ReplicaProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Mide el retraso de la réplica cada {@code lag-check-interval}. Si la réplica ya ha reproducido
+ * la posición actual del WAL del primario el retraso es cero; si no, es el tiempo desde la última
+ * transacción reproducida. Una base de datos que no está en recuperación (una segunda instancia
+ * independiente, en desarrollo) cuenta como al día.
+ * <p>
+ * El retraso medido envejece hasta la siguiente comprobación, así que la réplica se considera al
+ * día solo mientras retraso + antigüedad de la medida no supere {@code max-staleness}. Si la
+ * comprobación falla, las lecturas van al primario hasta que vuelva a funcionar.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private static final String LSN_PRIMARIO_SQL = "SELECT pg_current_wal_lsn()::text";
+    private static final String RETRASO_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0
+                       ELSE (EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000)::bigint
+                   END""";
+
+    private final JdbcTemplate primario;
+    private final JdbcTemplate replica;
+    private final long maxStalenessNanos;
+
+    private record Medida(long retrasoNanos, long medidaEn) {}
+
+    // null: sin medida válida
+    private volatile Medida medida;
+
+    public ReplicaLagMonitor(DataSource primario, DataSource replica, ReplicaProperties properties) {
+        this.primario = new JdbcTemplate(primario);
+        this.replica = new JdbcTemplate(replica);
+        this.maxStalenessNanos = properties.maxStaleness().toNanos();
+    }
+
+    public boolean isAlDia() {
+        Medida actual = medida;
+        return actual != null && actual.retrasoNanos() + (System.nanoTime() - actual.medidaEn()) <= maxStalenessNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${marketplace.datasource.replica.lag-check-interval:1s}")
+    public void check() {
+        boolean antes = isAlDia();
+        try {
+            long medidaEn = System.nanoTime();
+            String lsn = primario.queryForObject(LSN_PRIMARIO_SQL, String.class);
+            Long retrasoMs = replica.queryForObject(RETRASO_SQL, Long.class, lsn);
+            // Sin transacciones reproducidas todavía el retraso es desconocido
+            medida = retrasoMs == null ? null : new Medida(retrasoMs * 1_000_000, medidaEn);
+        } catch (RuntimeException e) {
+            medida = null;
+            if (antes) {
+                log.warn("No se pudo medir el retraso de la réplica; las lecturas van al primario: {}", e.getMessage());
+            }
+        }
+        boolean ahora = isAlDia();
+        if (antes != ahora) {
+            log.info(ahora ? "Réplica al día: las lecturas vuelven a la réplica"
+                    : "Réplica retrasada: las lecturas van al primario");
+        }
+    }
+
+    // Marca la réplica como no disponible hasta la siguiente comprobación
+    public void fallo() {
+        medida = null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("marketplace.datasource.replica.lag", this,
+                        monitor -> {
+                            Medida actual = monitor.medida;
+                            return actual == null ? Double.NaN : actual.retrasoNanos() / 1_000_000.0;
+                        })
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,80 @@
+package com.marketplace.backend_v2.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Envía las transacciones {@code readOnly} a la réplica y todo lo demás al primario. Una lectura
+ * vuelve al primario si la réplica va más retrasada de lo permitido ({@link ReplicaLagMonitor}),
+ * si el hilo está dentro de {@link ReadRouting#primario()} o si la réplica no da conexión.
+ * <p>
+ * Debe usarse detrás de un {@code LazyConnectionDataSourceProxy}: el gestor de transacciones pide
+ * la conexión antes de marcar la transacción como de solo lectura, y el proxy retrasa la elección
+ * hasta la primera sentencia.
+ * <p>
+ * Al dar una conexión de la réplica avisa a {@link ReplicaCacheMode}, para que lo leído en esa
+ * transacción no llegue a la caché de segundo nivel, y a {@link ReadRouting#origen()}, para que
+ * los listados servidos desde ella no lleven ETag.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARIO = "primario";
+    private static final String REPLICA = "replica";
+
+    private final DataSource primario;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReplicaCacheMode cacheMode;
+    private final Counter conexionesPrimario;
+    private final Counter conexionesReplica;
+
+    public ReplicaRoutingDataSource(DataSource primario, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    ReplicaCacheMode cacheMode, MeterRegistry meterRegistry) {
+        this.primario = primario;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.cacheMode = cacheMode;
+        this.conexionesPrimario = meterRegistry.counter("marketplace.datasource.conexiones", "destino", PRIMARIO);
+        this.conexionesReplica = meterRegistry.counter("marketplace.datasource.conexiones", "destino", REPLICA);
+        setTargetDataSources(Map.of(PRIMARIO, primario, REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean lectura = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadRouting.isPrimario()
+                && lagMonitor.isAlDia();
+        return lectura ? REPLICA : PRIMARIO;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineTargetDataSource() != replica) {
+            conexionesPrimario.increment();
+            return primario.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            conexionesReplica.increment();
+            ReadRouting.replicaElegida();
+            cacheMode.replicaElegida();
+            return connection;
+        } catch (SQLException e) {
+            lagMonitor.fallo();
+            log.warn("Réplica no disponible, se usa el primario: {}", e.getMessage());
+            conexionesPrimario.increment();
+            return primario.getConnection();
+        }
+    }
+}
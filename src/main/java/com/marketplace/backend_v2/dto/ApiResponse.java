@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -11,6 +12,7 @@ public record ApiResponse<T>(
         Boolean success,
         String message,
         T data,
+        String nextCursor,
         LocalDateTime timestamp,
         String path
 ) {
@@ -35,6 +37,15 @@ public record ApiResponse<T>(
                 .build();
     }
 
+    public static <T> ApiResponse<List<T>> page(CursorPage<T> page) {
+        return ApiResponse.<List<T>>builder()
+                .success(true)
+                .message("Operación exitosa")
+                .data(page.items())
+                .nextCursor(page.nextCursor())
+                .build();
+    }
+
     public static <T> ApiResponse<T> error(String message) {
         return ApiResponse.<T>builder()
                 .success(false)
@@ -47,6 +58,7 @@ public record ApiResponse<T>(
                 .success(this.success)
                 .message(this.message)
                 .data(this.data)
+                .nextCursor(this.nextCursor)
                 .timestamp(this.timestamp)
                 .path(path)
                 .build();
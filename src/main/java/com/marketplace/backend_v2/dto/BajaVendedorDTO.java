@@ -0,0 +1,27 @@
+package com.marketplace.backend_v2.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+public class BajaVendedorDTO {
+
+    public enum Estado {
+        EN_CURSO,
+        COMPLETADA,
+        FALLIDA
+    }
+
+    // productosTotal se cuenta al ocultar el catálogo; una importación en curso puede añadir alguno más
+    @Builder
+    public record Progreso(
+            String id,
+            Long vendedorId,
+            Estado estado,
+            Long productosTotal,
+            Long productosBorrados,
+            LocalDateTime inicio,
+            LocalDateTime fin,
+            String error
+    ) {}
+}
@@ -0,0 +1,25 @@
+package com.marketplace.backend_v2.dto;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Builder;
+
+@Builder
+public record CacheStatsDTO(
+        Long size,
+        Long hits,
+        Long misses,
+        Double hitRate,
+        Long evictions,
+        Double averageLoadPenaltyMillis
+) {
+    public static CacheStatsDTO from(CacheStats stats, long size) {
+        return CacheStatsDTO.builder()
+                .size(size)
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .averageLoadPenaltyMillis(stats.averageLoadPenalty() / 1_000_000.0)
+                .build();
+    }
+}
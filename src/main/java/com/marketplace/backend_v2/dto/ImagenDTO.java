@@ -0,0 +1,17 @@
+package com.marketplace.backend_v2.dto;
+
+import lombok.Builder;
+
+import java.util.Map;
+
+public class ImagenDTO {
+
+    // variantes: lado mayor en píxeles -> URL; imagenUrl es la variante principal
+    @Builder
+    public record Resultado(
+            String id,
+            Long productoId,
+            String imagenUrl,
+            Map<Integer, String> variantes
+    ) {}
+}
@@ -0,0 +1,24 @@
+package com.marketplace.backend_v2.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+public class ImportDTO {
+
+    @Builder
+    public record Resultado(
+            Long vendedorId,
+            Long filasLeidas,
+            Long importados,
+            Long rechazados,
+            Long duracionMs,
+            // Solo se devuelven los primeros errores para no acumular memoria con ficheros muy grandes
+            List<ErrorFila> errores
+    ) {}
+
+    public record ErrorFila(
+            Long fila,
+            String mensaje
+    ) {}
+}
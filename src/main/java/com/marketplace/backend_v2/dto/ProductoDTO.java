@@ -1,5 +1,6 @@
 package com.marketplace.backend_v2.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -41,7 +42,13 @@ public record ProductoDTO(
 
         // Información del vendedor (solo para respuestas)
         String vendedorNombre,
-        String vendedorEmail
+        String vendedorEmail,
+
+        Long version,
+
+        // Solo para calcular el ETag: los datos del vendedor también forman parte de la representación
+        @JsonIgnore
+        Long vendedorVersion
 ) {
     public ProductoDTO {
         if (stock == null) stock = 0;
@@ -60,6 +67,8 @@ public record ProductoDTO(
                 .fechaCreacion(producto.getFechaCreacion())
                 .vendedorNombre(producto.getVendedor().getNombre())
                 .vendedorEmail(producto.getVendedor().getEmail())
+                .version(producto.getVersion())
+                .vendedorVersion(producto.getVendedor().getVersion())
                 .build();
     }
 }
@@ -0,0 +1,23 @@
+package com.marketplace.backend_v2.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+public class StatsDTO {
+
+    // Solo cuentan los productos activos; el valor es la suma de precio * stock
+    @Builder
+    public record Vendedor(
+            Long vendedorId,
+            Long productos,
+            Long unidades,
+            BigDecimal valorInventario
+    ) {}
+
+    @Builder
+    public record Categoria(
+            String categoria,
+            Long productos
+    ) {}
+}
@@ -0,0 +1,35 @@
+package com.marketplace.backend_v2.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+
+import java.util.List;
+
+public class StockDTO {
+
+    @Builder
+    public record MovimientoRequest(
+            @NotNull(message = "La cantidad es obligatoria")
+            @Positive(message = "La cantidad debe ser mayor a 0")
+            Integer cantidad
+    ) {}
+
+    @Builder
+    public record Item(
+            @NotNull(message = "El ID del producto es obligatorio")
+            Long productoId,
+
+            @NotNull(message = "La cantidad es obligatoria")
+            @Positive(message = "La cantidad debe ser mayor a 0")
+            Integer cantidad
+    ) {}
+
+    @Builder
+    public record LoteRequest(
+            @NotEmpty(message = "Debe indicar al menos un producto")
+            List<@Valid Item> items
+    ) {}
+}
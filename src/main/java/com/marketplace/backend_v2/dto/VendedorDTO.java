@@ -31,7 +31,9 @@ public record VendedorDTO(
 
         Boolean estado,
 
-        LocalDateTime fechaCreacion
+        LocalDateTime fechaCreacion,
+
+        Long version
 ) {
     public VendedorDTO {
         if (estado == null) estado = true;
@@ -47,6 +49,7 @@ public record VendedorDTO(
                 .rucDni(vendedor.getRucDni())
                 .estado(vendedor.getEstado())
                 .fechaCreacion(vendedor.getFechaCreacion())
+                .version(vendedor.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,13 @@
+package com.marketplace.backend_v2.exception;
+
+/**
+ * La petición no se puede atender tal como viene: un cursor o formato desconocidos, un fichero
+ * que no se puede leer (HTTP 400). Los {@code IllegalArgumentException} que no pasan por aquí son
+ * fallos internos y siguen respondiendo 500.
+ */
+public class BadRequestException extends DomainException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.marketplace.backend_v2.exception;
+
+/**
+ * La operación choca con el estado actual de los datos: un email o username ya registrado, stock
+ * insuficiente, un vendedor inactivo (HTTP 409).
+ */
+public class ConflictException extends DomainException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
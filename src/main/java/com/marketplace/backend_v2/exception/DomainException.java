@@ -0,0 +1,13 @@
+package com.marketplace.backend_v2.exception;
+
+/**
+ * Base de los errores de negocio. No captura la traza: se lanzan en caminos calientes (un 404 por
+ * cada ID inexistente que pide un bot) y {@code GlobalExceptionHandler} solo necesita el tipo para
+ * elegir el estado HTTP y el mensaje para la respuesta.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
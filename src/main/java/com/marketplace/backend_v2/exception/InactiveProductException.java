@@ -0,0 +1,8 @@
+package com.marketplace.backend_v2.exception;
+
+public class InactiveProductException extends ConflictException {
+
+    public InactiveProductException(Long productoId) {
+        super("No se puede reservar ni liberar stock del producto inactivo con ID: " + productoId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.marketplace.backend_v2.exception;
+
+public class InactiveSellerException extends ConflictException {
+
+    public InactiveSellerException() {
+        super("No se pueden crear productos para vendedores inactivos");
+    }
+
+    private InactiveSellerException(String message) {
+        super(message);
+    }
+
+    public static InactiveSellerException stock(Long productoId) {
+        return new InactiveSellerException("No se puede reservar stock del producto con ID: " + productoId
+                + ", su vendedor está inactivo");
+    }
+}
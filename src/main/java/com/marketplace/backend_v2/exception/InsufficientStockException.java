@@ -0,0 +1,8 @@
+package com.marketplace.backend_v2.exception;
+
+public class InsufficientStockException extends ConflictException {
+
+    public InsufficientStockException(Long productoId, int cantidad) {
+        super("Stock insuficiente para reservar " + cantidad + " unidades del producto con ID: " + productoId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.marketplace.backend_v2.exception;
+
+/**
+ * Usuario, contraseña o token no válidos, o usuario inactivo (HTTP 401).
+ */
+public class InvalidCredentialsException extends DomainException {
+
+    public InvalidCredentialsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.marketplace.backend_v2.exception;
+
+/**
+ * El recurso pedido no existe (HTTP 404).
+ */
+public class NotFoundException extends DomainException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+
+    public static NotFoundException producto(Long id) {
+        return new NotFoundException("Producto no encontrado con ID: " + id);
+    }
+
+    public static NotFoundException vendedor(Long id) {
+        return new NotFoundException("Vendedor no encontrado con ID: " + id);
+    }
+}
@@ -0,0 +1,11 @@
+package com.marketplace.backend_v2.exception;
+
+/**
+ * El {@code If-Match} de la petición no coincide con la versión actual del recurso (HTTP 412).
+ */
+public class PreconditionFailedException extends DomainException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
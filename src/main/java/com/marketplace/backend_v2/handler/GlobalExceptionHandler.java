@@ -1,17 +1,35 @@
 package com.marketplace.backend_v2.handler;
 
 import com.marketplace.backend_v2.dto.ApiResponse;
+import com.marketplace.backend_v2.exception.BadRequestException;
+import com.marketplace.backend_v2.exception.ConflictException;
+import com.marketplace.backend_v2.exception.InvalidCredentialsException;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.exception.PreconditionFailedException;
+import com.marketplace.backend_v2.imagen.ImagenProcessingUnavailableException;
+import com.marketplace.backend_v2.security.PasswordHashingUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Único punto donde se traducen excepciones a estados HTTP; los controladores no capturan nada.
+ * Los errores de dominio son esperables (IDs inexistentes, conflictos, credenciales) y se registran
+ * en DEBUG: el access log ya deja constancia de cada respuesta 4xx.
+ */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -32,17 +50,74 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("Error de validación"));
     }
 
-    @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<ApiResponse<String>> handleRuntimeException(RuntimeException ex) {
-        log.warn("RuntimeException: {}", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleNotFound(NotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponse<Void>> handleConflict(ConflictException ex) {
+        return error(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCredentialsException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInvalidCredentials(InvalidCredentialsException ex) {
+        return error(HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiResponse<Void>> handlePreconditionFailed(PreconditionFailedException ex) {
+        return error(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    // Otra petición actualizó la fila entre la lectura y el flush: mismo caso que un If-Match obsoleto
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Void>> handleOptimisticLocking(ObjectOptimisticLockingFailureException ex) {
+        log.debug("Conflicto de versión: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(ApiResponse.error("El recurso fue modificado por otra petición"));
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ApiResponse<Void>> handleHashingUnavailable(PasswordHashingUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(ImagenProcessingUnavailableException.class)
+    public ResponseEntity<ApiResponse<Void>> handleImagenUnavailable(ImagenProcessingUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    /*
+     * Cursor o formato no válidos, fichero ilegible, JSON mal formado, parámetros con tipo
+     * incorrecto. Un IllegalArgumentException cualquiera no entra aquí: sale de una comprobación
+     * interna (configuración, argumentos de Jackson o del JDK) y es un 500.
+     */
+    @ExceptionHandler({BadRequestException.class, HttpMessageNotReadableException.class,
+            MethodArgumentTypeMismatchException.class})
+    public ResponseEntity<ApiResponse<Void>> handleBadRequest(Exception ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<String>> handleGeneralException(Exception ex) {
+        // Excepciones de Spring MVC con su propio estado: parámetro o header ausente, método no soportado, ruta inexistente
+        if (ex instanceof ErrorResponse errorResponse && errorResponse.getStatusCode().is4xxClientError()) {
+            HttpStatusCode status = errorResponse.getStatusCode();
+            log.debug("Petición rechazada con {}: {}", status.value(), ex.getMessage());
+            return ResponseEntity.status(status).body(ApiResponse.error(ex.getMessage()));
+        }
         log.error("Exception no manejada: {}", ex.getMessage(), ex);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Error interno del servidor: " + ex.getMessage()));
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<ApiResponse<Void>> error(HttpStatus status, String message) {
+        log.debug("{}: {}", status.value(), message);
+        return ResponseEntity.status(status).body(ApiResponse.error(message));
+    }
+}
@@ -0,0 +1,21 @@
+package com.marketplace.backend_v2.imagen;
+
+import com.marketplace.backend_v2.exception.DomainException;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * El pool de procesamiento de imágenes está saturado; la petición debe rechazarse con 503 y
+ * {@code Retry-After}.
+ */
+@Getter
+public class ImagenProcessingUnavailableException extends DomainException {
+
+    private final Duration retryAfter;
+
+    public ImagenProcessingUnavailableException(Duration retryAfter) {
+        super("Procesamiento de imágenes saturado, intenta nuevamente más tarde");
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,201 @@
+package com.marketplace.backend_v2.imagen;
+
+import com.marketplace.backend_v2.config.ImagenProperties;
+import com.marketplace.backend_v2.exception.BadRequestException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodifica una imagen subida y genera sus variantes en JPEG. El trabajo de CPU va a un pool
+ * dedicado con cola acotada, como {@code PasswordHasher}: el hilo de la petición solo espera.
+ * <p>
+ * Las dimensiones se leen de la cabecera antes de decodificar, así que una imagen con más de
+ * {@code max-pixeles} se rechaza sin reservar memoria para ella. Las imágenes grandes se
+ * decodifican submuestreadas: basta con el doble de la variante mayor.
+ */
+@Slf4j
+@Component
+public class ImagenProcessor {
+
+    private final ImagenProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    public ImagenProcessor(ImagenProperties properties) {
+        this.properties = properties;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.poolSize(), properties.poolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "imagenes-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Lado mayor -> JPEG, en el orden de marketplace.imagenes.tamanos
+    public Map<Integer, byte[]> variantes(byte[] original) {
+        return submit(() -> generar(original));
+    }
+
+    private Map<Integer, byte[]> generar(byte[] original) throws IOException {
+        List<Integer> tamanos = properties.tamanos();
+        BufferedImage imagen = decodificar(original, tamanos.getLast());
+
+        // De mayor a menor, cada variante a partir de la anterior
+        Map<Integer, byte[]> porTamano = new LinkedHashMap<>();
+        BufferedImage actual = imagen;
+        for (int tamano : tamanos.reversed()) {
+            actual = escalar(actual, tamano);
+            porTamano.put(tamano, codificar(actual));
+        }
+        Map<Integer, byte[]> variantes = new LinkedHashMap<>();
+        tamanos.forEach(tamano -> variantes.put(tamano, porTamano.get(tamano)));
+        return variantes;
+    }
+
+    private BufferedImage decodificar(byte[] datos, int mayor) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(datos))) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new BadRequestException("Formato de imagen no soportado");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int ancho = reader.getWidth(0);
+                int alto = reader.getHeight(0);
+                if ((long) ancho * alto > properties.maxPixeles()) {
+                    throw new BadRequestException("La imagen supera el máximo de "
+                            + properties.maxPixeles() + " píxeles");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int factor = Math.max(1, Math.max(ancho, alto) / (2 * mayor));
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException e) {
+                throw new BadRequestException("No se pudo decodificar la imagen: " + e.getMessage());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /*
+     * Reduce a la mitad mientras la imagen mida más del doble del objetivo y termina con un paso
+     * bilineal: con un solo paso grande el filtro bilineal se salta píxeles y aparecen dientes de sierra.
+     * Nunca amplía, y el resultado es siempre RGB opaco (la transparencia queda sobre fondo blanco).
+     */
+    private BufferedImage escalar(BufferedImage origen, int tamano) {
+        int ancho = origen.getWidth();
+        int alto = origen.getHeight();
+        double escala = Math.min(1.0, (double) tamano / Math.max(ancho, alto));
+        int anchoFinal = Math.max(1, (int) Math.round(ancho * escala));
+        int altoFinal = Math.max(1, (int) Math.round(alto * escala));
+
+        BufferedImage actual = origen;
+        do {
+            int siguienteAncho = Math.max(anchoFinal, actual.getWidth() / 2);
+            int siguienteAlto = Math.max(altoFinal, actual.getHeight() / 2);
+            if (siguienteAncho < anchoFinal * 2 && siguienteAlto < altoFinal * 2) {
+                siguienteAncho = anchoFinal;
+                siguienteAlto = altoFinal;
+            }
+            actual = dibujar(actual, siguienteAncho, siguienteAlto);
+        } while (actual.getWidth() != anchoFinal || actual.getHeight() != altoFinal);
+        return actual;
+    }
+
+    private BufferedImage dibujar(BufferedImage origen, int ancho, int alto) {
+        BufferedImage destino = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(origen, 0, 0, ancho, alto, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    private byte[] codificar(BufferedImage imagen) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.calidad());
+            writer.write(null, new IIOImage(imagen, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Pool de imágenes saturado ({} en cola), rechazando petición", executor.getQueue().size());
+            throw new ImagenProcessingUnavailableException(properties.retryAfter());
+        }
+        try {
+            return future.get(properties.maxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ImagenProcessingUnavailableException(properties.retryAfter());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImagenProcessingUnavailableException(properties.retryAfter());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,83 @@
+package com.marketplace.backend_v2.imagen;
+
+import com.marketplace.backend_v2.config.ImagenProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Variantes de imagen en disco, direccionadas por contenido: el ID es el SHA-256 de la imagen
+ * subida y cada variante vive en {@code <directorio>/<2 primeros>/<id>/<tamaño>.jpg}. Un fichero
+ * nunca cambia una vez escrito, así que se puede cachear sin límite y la misma imagen subida para
+ * varios productos se procesa una sola vez.
+ */
+@Component
+public class ImagenStore {
+
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{64}");
+
+    private final ImagenProperties properties;
+
+    public ImagenStore(ImagenProperties properties) {
+        this.properties = properties;
+    }
+
+    public static String id(byte[] original) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(original));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String url(String id, int tamano) {
+        return "/imagenes/" + id + "/" + tamano + ".jpg";
+    }
+
+    // Una subida anterior de la misma imagen ya dejó todas las variantes configuradas
+    public boolean existe(String id) {
+        return properties.tamanos().stream().allMatch(tamano -> Files.isRegularFile(ruta(id, tamano)));
+    }
+
+    /**
+     * Escribe en un temporal del mismo directorio y lo mueve de forma atómica: quien sirve el
+     * fichero nunca ve una variante a medio escribir.
+     */
+    public void guardar(String id, int tamano, byte[] datos) {
+        Path destino = ruta(id, tamano);
+        try {
+            Files.createDirectories(destino.getParent());
+            Path temporal = Files.createTempFile(destino.getParent(), tamano + "-", ".tmp");
+            try {
+                Files.write(temporal, datos);
+                Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Vacío si el ID o el tamaño no son válidos o la variante no existe; la ruta nunca sale del directorio
+    public Optional<Path> find(String id, int tamano) {
+        if (!ID.matcher(id).matches() || !properties.tamanos().contains(tamano)) {
+            return Optional.empty();
+        }
+        Path ruta = ruta(id, tamano);
+        return Files.isRegularFile(ruta) ? Optional.of(ruta) : Optional.empty();
+    }
+
+    private Path ruta(String id, int tamano) {
+        return properties.directorio().resolve(id.substring(0, 2)).resolve(id).resolve(tamano + ".jpg");
+    }
+}
@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -15,6 +18,8 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @Table(name = "productos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "productos")
 public class Producto {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -47,5 +52,20 @@ public class Producto {
 
     @Builder.Default
     private Boolean activo = true;
+
+    /*
+     * Copia de "activo && vendedor.estado" para que el catálogo público filtre sin unir con
+     * vendedores. La mantienen ProductoService, VendedorService (un UPDATE por vendedor) y la
+     * importación; el índice parcial idx_productos_visibles cubre solo las filas visibles.
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    @ColumnDefault("true")
+    private Boolean visible = true;
+
+    // Sin valor por defecto en Java: Spring Data considera nueva una entidad con versión null
+    @Version
+    @ColumnDefault("0")
+    private Long version;
 }
 
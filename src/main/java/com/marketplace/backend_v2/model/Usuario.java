@@ -29,8 +29,6 @@ public class Usuario {
     @Column(unique = true)
     private String email;
 
-    private String token;
-
     @Column(name = "ultimo_login")
     private LocalDateTime ultimoLogin;
 
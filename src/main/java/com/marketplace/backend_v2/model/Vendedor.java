@@ -5,6 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -16,6 +21,9 @@ import java.util.List;
 @Builder
 @Entity
 @Table(name = "vendedores")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vendedores")
+@NaturalIdCache(region = "vendedores-email")
 public class Vendedor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +32,8 @@ public class Vendedor {
     @Column(nullable = false)
     private String nombre;
 
+    // Mutable: el vendedor puede cambiar su email, y la caché de natural-id se actualiza con él
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -41,14 +51,13 @@ public class Vendedor {
     @Builder.Default
     private LocalDateTime fechaCreacion = LocalDateTime.now();
 
-    @OneToMany(mappedBy = "vendedor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    // Sin cascada: la baja borra los productos por lotes (VendedorBajaService), no a través de la colección
+    @OneToMany(mappedBy = "vendedor", fetch = FetchType.LAZY)
     @Builder.Default
     private List<Producto> productos = new ArrayList<>();
-
-    // Método helper para agregar producto
-    public void agregarProducto(Producto producto) {
-        productos.add(producto);
-        producto.setVendedor(this);
-    }
 }
 
@@ -1,26 +1,127 @@
 package com.marketplace.backend_v2.repository;
 
+import com.marketplace.backend_v2.dto.ProductoDTO;
 import com.marketplace.backend_v2.model.Producto;
+import com.marketplace.backend_v2.search.ProductoTexto;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
     List<Producto> findByVendedorId(Long vendedorId);
     List<Producto> findByCategoria(String categoria);
 
-    @Query("SELECT p FROM Producto p WHERE p.vendedor.estado = true AND p.activo = true")
+    // Catálogo público: "visible" ya incluye el estado del vendedor, sin JOIN
+    @Query("SELECT p FROM Producto p WHERE p.visible = true")
     List<Producto> findByVendedorEstadoTrue();
 
-    @Query("SELECT p FROM Producto p WHERE p.categoria = :categoria AND p.vendedor.estado = true AND p.activo = true")
+    @Query("SELECT p FROM Producto p WHERE p.categoria = :categoria AND p.visible = true")
     List<Producto> findByCategoriaAndVendedorActivo(@Param("categoria") String categoria);
 
-    @Query("SELECT p FROM Producto p WHERE p.stock > 0 AND p.vendedor.estado = true AND p.activo = true")
+    @Query("SELECT p FROM Producto p WHERE p.stock > 0 AND p.visible = true")
     List<Producto> findProductosConStock();
 
     List<Producto> findByActivoTrue();
+
+    // Proyección con exactamente las columnas de ProductoDTO: producto y vendedor en una sola consulta
+    String PRODUCTO_DTO_SELECT = "SELECT new com.marketplace.backend_v2.dto.ProductoDTO(" +
+            "p.id, p.nombre, p.descripcion, p.precio, p.stock, v.id, p.categoria, p.imagenUrl, " +
+            "p.fechaCreacion, v.nombre, v.email, p.version, v.version) FROM Producto p JOIN p.vendedor v ";
+
+    @Query(PRODUCTO_DTO_SELECT + "WHERE p.id = :id")
+    Optional<ProductoDTO> findDtoById(@Param("id") Long id);
+
+    // Paginación por cursor (keyset): "after" es el último ID de la página anterior
+    @Query(PRODUCTO_DTO_SELECT + "WHERE p.id > :after ORDER BY p.id")
+    List<ProductoDTO> findDtoPage(@Param("after") Long after, Limit limit);
+
+    @Query(PRODUCTO_DTO_SELECT + "WHERE v.id = :vendedorId AND p.id > :after ORDER BY p.id")
+    List<ProductoDTO> findDtoPageByVendedorId(@Param("vendedorId") Long vendedorId,
+                                              @Param("after") Long after, Limit limit);
+
+    @Query(PRODUCTO_DTO_SELECT + "WHERE p.categoria = :categoria AND p.id > :after ORDER BY p.id")
+    List<ProductoDTO> findDtoPageByCategoria(@Param("categoria") String categoria,
+                                             @Param("after") Long after, Limit limit);
+
+    // El filtro y el orden salen del índice parcial; vendedores solo aporta nombre, email y versión
+    @Query(PRODUCTO_DTO_SELECT + "WHERE p.visible = true AND p.id > :after ORDER BY p.id")
+    List<ProductoDTO> findDtoPageActivos(@Param("after") Long after, Limit limit);
+
+    @Query(PRODUCTO_DTO_SELECT + "WHERE p.visible = true AND p.stock > 0 AND p.id > :after ORDER BY p.id")
+    List<ProductoDTO> findDtoPageConStock(@Param("after") Long after, Limit limit);
+
+    // Exportación completa: el fetch size hace que PostgreSQL entregue las filas por lotes con un cursor
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(PRODUCTO_DTO_SELECT + "ORDER BY p.id")
+    Stream<ProductoDTO> streamAllDtos();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.marketplace.backend_v2.search.ProductoTexto(p.id, p.nombre, p.descripcion, p.categoria) " +
+            "FROM Producto p WHERE p.activo = true ORDER BY p.id")
+    Stream<ProductoTexto> streamTextoActivos();
+
+    // Hidratación de resultados de búsqueda: descarta productos cuyo vendedor dejó de estar activo
+    @Query(PRODUCTO_DTO_SELECT + "WHERE p.id IN :ids AND p.visible = true")
+    List<ProductoDTO> findDtoActivosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /*
+     * Cambio de estado del vendedor: una sola sentencia sobre sus productos activos. Los inactivos
+     * ya tienen visible = false y no cambian al reactivar el vendedor.
+     */
+    @Modifying
+    @Query("UPDATE Producto p SET p.visible = :visible " +
+            "WHERE p.vendedor.id = :vendedorId AND p.activo = true AND p.visible <> :visible")
+    int updateVisibleByVendedorId(@Param("vendedorId") Long vendedorId, @Param("visible") boolean visible);
+
+    long countByVendedorId(Long vendedorId);
+
+    // Baja de un vendedor por lotes: cada lote bloquea sus productos en orden de ID antes de descontar los agregados
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Producto p WHERE p.vendedor.id = :vendedorId ORDER BY p.id")
+    List<Long> findIdsByVendedorIdForUpdate(@Param("vendedorId") Long vendedorId, Limit limit);
+
+    /*
+     * Reservas y liberaciones en SQL nativo. Un UPDATE en JPQL vacía la región "productos" entera de
+     * la caché de segundo nivel en cada reserva; aquí el espacio de sincronización declarado no es la
+     * tabla de ninguna entidad cacheada, así que Hibernate no desaloja nada y StockService desaloja
+     * solo los productos que ha tocado.
+     */
+    String STOCK_SPACE = "productos_stock";
+
+    /*
+     * Reserva atómica: solo descuenta si queda stock suficiente; devuelve 0 si no se pudo reservar.
+     * Solo productos visibles (activos y de un vendedor activo): lo que el catálogo no muestra no se vende.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_SPACE))
+    @Query(value = "UPDATE productos SET stock = stock - :cantidad, version = version + 1 " +
+            "WHERE id = :id AND visible = true AND stock >= :cantidad", nativeQuery = true)
+    int reserveStock(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    // Devuelve 0 si el producto no existe o está inactivo. Con el vendedor desactivado sí se libera: devuelve reservas previas
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_SPACE))
+    @Query(value = "UPDATE productos SET stock = stock + :cantidad, version = version + 1 " +
+            "WHERE id = :id AND activo = true", nativeQuery = true)
+    int releaseStock(@Param("id") Long id, @Param("cantidad") int cantidad);
 }
@@ -0,0 +1,189 @@
+package com.marketplace.backend_v2.repository;
+
+import com.marketplace.backend_v2.dto.StatsDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Contadores de vendedor_stats y categoria_stats (tablas de la migración V2). Las sumas son
+ * sentencias atómicas sobre la fila del contador; quien modifica varias filas en una transacción
+ * las bloquea siempre en orden de clave para no cruzarse con otra en un deadlock.
+ * <p>
+ * Los movimientos de stock no tocan vendedor_stats: se insertan en vendedor_stats_movimientos
+ * (migración V4) y {@link #foldMovimientos} los suma después. Lo que lee vendedor_stats suma
+ * también lo pendiente, en la misma sentencia.
+ */
+@Repository
+public class StatsRepository {
+
+    private static final String INSERT_MOVIMIENTO = """
+            INSERT INTO vendedor_stats_movimientos (vendedor_id, unidades, valor)
+            SELECT p.vendedor_id, ?, ? * p.precio FROM productos p WHERE p.id = ? AND p.activo""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public StatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public Optional<StatsDTO.Vendedor> findVendedor(Long vendedorId) {
+        // LEFT JOIN: un vendedor sin fila todavía (anterior a la primera reconciliación) tiene todo a cero
+        return jdbcTemplate.query("""
+                        SELECT v.id, COALESCE(s.productos, 0) AS productos,
+                               COALESCE(s.unidades, 0) + m.unidades AS unidades, COALESCE(s.valor, 0) + m.valor AS valor
+                        FROM vendedores v LEFT JOIN vendedor_stats s ON s.vendedor_id = v.id
+                        CROSS JOIN LATERAL (SELECT COALESCE(sum(unidades), 0) AS unidades, COALESCE(sum(valor), 0) AS valor
+                                            FROM vendedor_stats_movimientos WHERE vendedor_id = v.id) m
+                        WHERE v.id = ?""",
+                (rs, i) -> StatsDTO.Vendedor.builder()
+                        .vendedorId(rs.getLong("id"))
+                        .productos(rs.getLong("productos"))
+                        .unidades(rs.getLong("unidades"))
+                        .valorInventario(rs.getBigDecimal("valor"))
+                        .build(),
+                vendedorId).stream().findFirst();
+    }
+
+    public List<StatsDTO.Categoria> findCategorias() {
+        return jdbcTemplate.query(
+                "SELECT categoria, productos FROM categoria_stats WHERE productos > 0 ORDER BY categoria",
+                (rs, i) -> new StatsDTO.Categoria(rs.getString("categoria"), rs.getLong("productos")));
+    }
+
+    public void createVendedor(Long vendedorId) {
+        jdbcTemplate.update("INSERT INTO vendedor_stats (vendedor_id) VALUES (?) ON CONFLICT DO NOTHING", vendedorId);
+    }
+
+    public void addVendedor(Long vendedorId, long productos, long unidades, BigDecimal valor) {
+        jdbcTemplate.update("""
+                INSERT INTO vendedor_stats AS s (vendedor_id, productos, unidades, valor) VALUES (?, ?, ?, ?)
+                ON CONFLICT (vendedor_id) DO UPDATE SET productos = s.productos + EXCLUDED.productos,
+                    unidades = s.unidades + EXCLUDED.unidades, valor = s.valor + EXCLUDED.valor""",
+                vendedorId, productos, unidades, valor);
+    }
+
+    public void addCategoria(String categoria, long productos) {
+        jdbcTemplate.update("""
+                INSERT INTO categoria_stats AS c (categoria, productos) VALUES (?, ?)
+                ON CONFLICT (categoria) DO UPDATE SET productos = c.productos + EXCLUDED.productos""",
+                categoria, productos);
+    }
+
+    // Movimiento de stock: el vendedor y el precio salen de la fila del producto, ya bloqueada por el UPDATE de stock
+    public void addStock(Long productoId, int cantidad) {
+        jdbcTemplate.update(INSERT_MOVIMIENTO, cantidad, cantidad, productoId);
+    }
+
+    public void addStock(Map<Long, Integer> porProducto) {
+        List<Object[]> filas = porProducto.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getValue(), e.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_MOVIMIENTO, filas);
+    }
+
+    /**
+     * Suma a vendedor_stats hasta {@code limite} movimientos pendientes, los más antiguos, y los
+     * borra. Devuelve cuántos ha plegado. Las filas de los vendedores se bloquean antes en orden,
+     * como en {@link #reconcileVendedores}.
+     */
+    public int foldMovimientos(int limite) {
+        Long hasta = jdbcTemplate.queryForObject("""
+                SELECT max(id) FROM (SELECT id FROM vendedor_stats_movimientos ORDER BY id LIMIT ?) m""",
+                Long.class, limite);
+        if (hasta == null) {
+            return 0;
+        }
+        jdbcTemplate.queryForList("""
+                SELECT vendedor_id FROM vendedor_stats
+                WHERE vendedor_id IN (SELECT vendedor_id FROM vendedor_stats_movimientos WHERE id <= ?)
+                ORDER BY vendedor_id FOR UPDATE""", Long.class, hasta);
+        return jdbcTemplate.queryForObject("""
+                WITH m AS (DELETE FROM vendedor_stats_movimientos WHERE id <= ? RETURNING vendedor_id, unidades, valor),
+                     u AS (UPDATE vendedor_stats s SET unidades = s.unidades + x.unidades, valor = s.valor + x.valor
+                           FROM (SELECT vendedor_id, sum(unidades) AS unidades, sum(valor) AS valor
+                                 FROM m GROUP BY vendedor_id) x
+                           WHERE s.vendedor_id = x.vendedor_id)
+                SELECT count(*) FROM m""", Integer.class, hasta);
+    }
+
+    // Antes de borrar productos que quien llama ya tiene bloqueados; los inactivos no cuentan en ningún agregado
+    public void removeProductos(Long vendedorId, Collection<Long> productoIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", productoIds).addValue("vendedorId", vendedorId);
+        namedJdbcTemplate.update("""
+                UPDATE vendedor_stats s SET productos = s.productos - x.productos, unidades = s.unidades - x.unidades,
+                    valor = s.valor - x.valor
+                FROM (SELECT count(*) AS productos, COALESCE(sum(stock), 0) AS unidades,
+                             COALESCE(sum(precio * stock), 0) AS valor
+                      FROM productos WHERE id IN (:ids) AND activo) x
+                WHERE s.vendedor_id = :vendedorId""", params);
+        namedJdbcTemplate.queryForList("""
+                SELECT c.categoria FROM categoria_stats c
+                WHERE c.categoria IN (SELECT p.categoria FROM productos p WHERE p.id IN (:ids) AND p.activo)
+                ORDER BY c.categoria FOR UPDATE""", params, String.class);
+        namedJdbcTemplate.update("""
+                UPDATE categoria_stats c SET productos = c.productos - x.productos
+                FROM (SELECT categoria, count(*) AS productos FROM productos
+                      WHERE id IN (:ids) AND activo AND categoria IS NOT NULL GROUP BY categoria) x
+                WHERE c.categoria = x.categoria""", params);
+    }
+
+    public List<Long> findVendedorIds(long after, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM vendedores WHERE id > ? ORDER BY id LIMIT ?",
+                Long.class, after, limit);
+    }
+
+    /**
+     * Recalcula los contadores de los vendedores con ID en [desde, hasta] y devuelve cuántos no
+     * coincidían. Las filas se bloquean antes de leer productos: un cambio concurrente o ya hizo
+     * commit (y entra en el recuento) o espera al bloqueo y suma su delta sobre el valor corregido.
+     * Los movimientos de stock no esperan a ese bloqueo, así que la fila recibe el recuento menos lo
+     * pendiente, con productos y movimientos leídos en la misma sentencia.
+     */
+    public int reconcileVendedores(long desde, long hasta) {
+        jdbcTemplate.update("""
+                INSERT INTO vendedor_stats (vendedor_id) SELECT id FROM vendedores WHERE id BETWEEN ? AND ?
+                ON CONFLICT DO NOTHING""", desde, hasta);
+        jdbcTemplate.queryForList("""
+                SELECT vendedor_id FROM vendedor_stats WHERE vendedor_id BETWEEN ? AND ?
+                ORDER BY vendedor_id FOR UPDATE""", Long.class, desde, hasta);
+        return jdbcTemplate.update("""
+                UPDATE vendedor_stats s SET productos = r.productos, unidades = r.unidades - COALESCE(m.unidades, 0),
+                    valor = r.valor - COALESCE(m.valor, 0)
+                FROM (SELECT v.id AS vendedor_id, count(p.id) AS productos, COALESCE(sum(p.stock), 0) AS unidades,
+                             COALESCE(sum(p.precio * p.stock), 0) AS valor
+                      FROM vendedores v LEFT JOIN productos p ON p.vendedor_id = v.id AND p.activo
+                      WHERE v.id BETWEEN ? AND ?
+                      GROUP BY v.id) r
+                LEFT JOIN (SELECT vendedor_id, sum(unidades) AS unidades, sum(valor) AS valor
+                           FROM vendedor_stats_movimientos WHERE vendedor_id BETWEEN ? AND ?
+                           GROUP BY vendedor_id) m ON m.vendedor_id = r.vendedor_id
+                WHERE s.vendedor_id = r.vendedor_id
+                  AND (s.productos, s.unidades, s.valor) IS DISTINCT FROM
+                      (r.productos, r.unidades - COALESCE(m.unidades, 0), r.valor - COALESCE(m.valor, 0))""",
+                desde, hasta, desde, hasta);
+    }
+
+    // Mismo esquema que reconcileVendedores, de una vez: las categorías son pocas
+    public int reconcileCategorias() {
+        jdbcTemplate.queryForList("SELECT categoria FROM categoria_stats ORDER BY categoria FOR UPDATE", String.class);
+        int corregidas = jdbcTemplate.update("""
+                INSERT INTO categoria_stats AS c (categoria, productos)
+                SELECT categoria, count(*) FROM productos WHERE activo AND categoria IS NOT NULL GROUP BY categoria
+                ON CONFLICT (categoria) DO UPDATE SET productos = EXCLUDED.productos
+                WHERE c.productos <> EXCLUDED.productos""");
+        return corregidas + jdbcTemplate.update("""
+                UPDATE categoria_stats c SET productos = 0
+                WHERE c.productos <> 0
+                  AND NOT EXISTS (SELECT 1 FROM productos p WHERE p.categoria = c.categoria AND p.activo)""");
+    }
+}
@@ -10,7 +10,6 @@ import java.util.Optional;
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByUsername(String username);
     Optional<Usuario> findByEmail(String email);
-    Optional<Usuario> findByToken(String token);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
 }
\ No newline at end of file
@@ -1,15 +1,45 @@
 package com.marketplace.backend_v2.repository;
 
 import com.marketplace.backend_v2.model.Vendedor;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface VendedorRepository extends JpaRepository<Vendedor, Long> {
-    Optional<Vendedor> findByEmail(String email);
+public interface VendedorRepository extends JpaRepository<Vendedor, Long>, VendedorRepositoryCustom {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "vendedores-activos")
+    })
     List<Vendedor> findByEstadoTrue();
     Boolean existsByEmail(String email);
+
+    // Paginación por cursor (keyset): "after" es el último ID de la página anterior
+    List<Vendedor> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "vendedores-activos")
+    })
+    List<Vendedor> findByEstadoTrueAndIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // FOR SHARE: un cambio de estado concurrente espera a que el producto nuevo haga commit
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT v FROM Vendedor v WHERE v.id = :id")
+    Optional<Vendedor> findByIdForShare(@Param("id") Long id);
+
+    // Baja: bloquea altas e importaciones (FOR SHARE) mientras se borran los últimos productos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vendedor v WHERE v.id = :id")
+    Optional<Vendedor> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,11 @@
+package com.marketplace.backend_v2.repository;
+
+import com.marketplace.backend_v2.model.Vendedor;
+
+import java.util.Optional;
+
+public interface VendedorRepositoryCustom {
+
+    // Búsqueda por natural-id: pasa por la caché de segundo nivel en lugar de lanzar una consulta
+    Optional<Vendedor> findByEmail(String email);
+}
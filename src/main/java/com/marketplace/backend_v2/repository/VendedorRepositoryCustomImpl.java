@@ -0,0 +1,23 @@
+package com.marketplace.backend_v2.repository;
+
+import com.marketplace.backend_v2.model.Vendedor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class VendedorRepositoryCustomImpl implements VendedorRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Vendedor> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Vendedor.class)
+                .loadOptional(email);
+    }
+}
@@ -0,0 +1,119 @@
+package com.marketplace.backend_v2.search;
+
+import java.util.Arrays;
+
+/**
+ * Postings de un término en arrays paralelos ordenados por ID de producto: frecuencia ponderada del
+ * término en el producto y longitud del producto. Con la longitud al lado, puntuar con BM25 no
+ * necesita buscar cada producto en otro mapa, y no hay un {@code Long} y un {@code Integer} por
+ * entrada. Los productos se indexan en orden de ID al construir, así que casi todas las altas son
+ * al final. No es thread-safe: el índice lo protege con su propio lock.
+ * <p>
+ * La frecuencia máxima y la longitud mínima acotan lo que el término puede sumar a un producto.
+ * Las bajas no las recalculan: la cota queda algo holgada, pero sigue siendo válida.
+ */
+final class Postings {
+
+    // Instancia única del término, compartida por el trie y los documentos que lo contienen
+    private final String termino;
+
+    private long[] ids = new long[2];
+    private int[] frecuencias = new int[2];
+    private int[] longitudes = new int[2];
+    private int size;
+    private int frecuenciaMaxima;
+    private int longitudMinima = Integer.MAX_VALUE;
+
+    Postings(String termino) {
+        this.termino = termino;
+    }
+
+    String termino() {
+        return termino;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long id(int posicion) {
+        return ids[posicion];
+    }
+
+    int frecuencia(int posicion) {
+        return frecuencias[posicion];
+    }
+
+    int longitud(int posicion) {
+        return longitudes[posicion];
+    }
+
+    int frecuenciaMaxima() {
+        return frecuenciaMaxima;
+    }
+
+    int longitudMinima() {
+        return longitudMinima;
+    }
+
+    /**
+     * Primera posición a partir de {@code desde} con un ID mayor o igual que {@code id}, o
+     * {@link #size()} si no hay ninguna. Avanza a saltos crecientes y acaba con una búsqueda binaria,
+     * así que saltar muchos productos cuesta poco.
+     */
+    int avanzar(int desde, long id) {
+        if (desde >= size || ids[desde] >= id) {
+            return desde;
+        }
+        int bajo = desde;
+        int alto = desde + 1;
+        int paso = 1;
+        while (alto < size && ids[alto] < id) {
+            bajo = alto;
+            paso <<= 1;
+            alto = bajo + paso;
+        }
+        int posicion = Arrays.binarySearch(ids, bajo + 1, Math.min(alto + 1, size), id);
+        return posicion >= 0 ? posicion : -(posicion + 1);
+    }
+
+    void put(long id, int frecuencia, int longitud) {
+        frecuenciaMaxima = Math.max(frecuenciaMaxima, frecuencia);
+        longitudMinima = Math.min(longitudMinima, longitud);
+        int posicion = size > 0 && ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+        if (posicion >= 0) {
+            frecuencias[posicion] = frecuencia;
+            longitudes[posicion] = longitud;
+            return;
+        }
+        posicion = -(posicion + 1);
+        if (size == ids.length) {
+            int capacidad = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacidad);
+            frecuencias = Arrays.copyOf(frecuencias, capacidad);
+            longitudes = Arrays.copyOf(longitudes, capacidad);
+        }
+        int desplazar = size - posicion;
+        if (desplazar > 0) {
+            System.arraycopy(ids, posicion, ids, posicion + 1, desplazar);
+            System.arraycopy(frecuencias, posicion, frecuencias, posicion + 1, desplazar);
+            System.arraycopy(longitudes, posicion, longitudes, posicion + 1, desplazar);
+        }
+        ids[posicion] = id;
+        frecuencias[posicion] = frecuencia;
+        longitudes[posicion] = longitud;
+        size++;
+    }
+
+    void remove(long id) {
+        int posicion = Arrays.binarySearch(ids, 0, size, id);
+        if (posicion < 0) {
+            return;
+        }
+        int desplazar = size - posicion - 1;
+        System.arraycopy(ids, posicion + 1, ids, posicion, desplazar);
+        System.arraycopy(frecuencias, posicion + 1, frecuencias, posicion, desplazar);
+        System.arraycopy(longitudes, posicion + 1, longitudes, posicion, desplazar);
+        size--;
+    }
+}
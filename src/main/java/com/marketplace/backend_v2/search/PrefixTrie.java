@@ -0,0 +1,210 @@
+package com.marketplace.backend_v2.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Trie de términos del índice con su frecuencia documental, usado para autocompletar y para
+ * expandir el último término de una búsqueda mientras el usuario escribe. No es thread-safe:
+ * el índice lo protege con su propio lock.
+ * <p>
+ * Cada nodo guarda los {@code maxMejores} términos más frecuentes de su subárbol, así que
+ * completar un prefijo corto no recorre todos los términos que empiezan por él. Un alta solo puede
+ * subir un término en las listas de su camino; una baja que saca un término de una lista llena
+ * la rehace con las listas de los hijos. Los límites mayores que {@code maxMejores} recorren el
+ * subárbol.
+ */
+class PrefixTrie {
+
+    private static final Nodo[] VACIO = new Nodo[0];
+
+    // Más frecuente primero; a igual frecuencia, orden alfabético para que el resultado sea estable
+    private static final Comparator<Nodo> ORDEN = Comparator.<Nodo>comparingInt(nodo -> nodo.frecuencia)
+            .reversed()
+            .thenComparing(nodo -> nodo.termino);
+
+    private static final class Nodo {
+        private final Map<Character, Nodo> hijos = new HashMap<>(4);
+        private int frecuencia;
+        // Término que acaba en este nodo; solo cuenta mientras la frecuencia sea mayor que cero
+        private String termino;
+        // Nodos terminales del subárbol, en ORDEN; si hay menos de maxMejores, están todos
+        private Nodo[] mejores = VACIO;
+        private int numMejores;
+    }
+
+    private final int maxMejores;
+    private final Nodo raiz = new Nodo();
+
+    PrefixTrie(int maxMejores) {
+        this.maxMejores = maxMejores;
+    }
+
+    void add(String termino) {
+        Nodo[] camino = camino(termino, true);
+        Nodo terminal = camino[termino.length()];
+        terminal.termino = termino;
+        terminal.frecuencia++;
+        for (Nodo nodo : camino) {
+            subir(nodo, terminal);
+        }
+    }
+
+    void remove(String termino) {
+        Nodo[] camino = camino(termino, false);
+        Nodo terminal = camino == null ? null : camino[termino.length()];
+        if (terminal == null || terminal.frecuencia == 0) {
+            return;
+        }
+        terminal.frecuencia--;
+        // De abajo arriba: al corregir un nodo, las listas de sus hijos ya están al día
+        for (int i = termino.length(); i >= 0; i--) {
+            Nodo nodo = camino[i];
+            bajar(nodo, terminal);
+            if (i > 0 && nodo.frecuencia == 0 && nodo.hijos.isEmpty()) {
+                camino[i - 1].hijos.remove(termino.charAt(i - 1));
+            }
+        }
+    }
+
+    // Nodos desde la raíz hasta el del término; null si no existe y no se pide crearlo
+    private Nodo[] camino(String termino, boolean crear) {
+        Nodo[] camino = new Nodo[termino.length() + 1];
+        Nodo nodo = raiz;
+        camino[0] = nodo;
+        for (int i = 0; i < termino.length(); i++) {
+            char c = termino.charAt(i);
+            nodo = crear ? nodo.hijos.computeIfAbsent(c, k -> new Nodo()) : nodo.hijos.get(c);
+            if (nodo == null) {
+                return null;
+            }
+            camino[i + 1] = nodo;
+        }
+        return camino;
+    }
+
+    /**
+     * Términos que empiezan por {@code prefijo}, de mayor a menor frecuencia documental.
+     */
+    List<String> complete(String prefijo, int limite) {
+        Nodo nodo = raiz;
+        for (int i = 0; i < prefijo.length() && nodo != null; i++) {
+            nodo = nodo.hijos.get(prefijo.charAt(i));
+        }
+        if (nodo == null || limite <= 0) {
+            return List.of();
+        }
+        if (limite <= maxMejores || nodo.numMejores < maxMejores) {
+            int total = Math.min(limite, nodo.numMejores);
+            List<String> resultado = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                resultado.add(nodo.mejores[i].termino);
+            }
+            return resultado;
+        }
+        PriorityQueue<Nodo> mejores = new PriorityQueue<>(limite, ORDEN.reversed());
+        collect(nodo, mejores, limite);
+
+        List<String> resultado = new ArrayList<>(mejores.size());
+        while (!mejores.isEmpty()) {
+            resultado.add(mejores.poll().termino);
+        }
+        return resultado.reversed();
+    }
+
+    private void collect(Nodo nodo, PriorityQueue<Nodo> mejores, int limite) {
+        if (nodo.frecuencia > 0) {
+            if (mejores.size() < limite) {
+                mejores.add(nodo);
+            } else if (ORDEN.compare(nodo, mejores.peek()) < 0) {
+                mejores.poll();
+                mejores.add(nodo);
+            }
+        }
+        for (Nodo hijo : nodo.hijos.values()) {
+            collect(hijo, mejores, limite);
+        }
+    }
+
+    // La frecuencia del terminal acaba de subir: entra en la lista si supera al último y sube de puesto
+    private void subir(Nodo nodo, Nodo terminal) {
+        // Si estaba en una lista llena sigue por delante del último, así que no hace falta buscarlo
+        if (nodo.numMejores == maxMejores && ORDEN.compare(terminal, nodo.mejores[maxMejores - 1]) > 0) {
+            return;
+        }
+        int posicion = posicion(nodo, terminal);
+        if (posicion < 0) {
+            if (nodo.numMejores < maxMejores) {
+                if (nodo.numMejores == nodo.mejores.length) {
+                    nodo.mejores = Arrays.copyOf(nodo.mejores, Math.min(maxMejores, Math.max(2, nodo.numMejores * 2)));
+                }
+                posicion = nodo.numMejores++;
+            } else if (ORDEN.compare(terminal, nodo.mejores[nodo.numMejores - 1]) < 0) {
+                posicion = nodo.numMejores - 1;
+            } else {
+                return;
+            }
+            nodo.mejores[posicion] = terminal;
+        }
+        while (posicion > 0 && ORDEN.compare(terminal, nodo.mejores[posicion - 1]) < 0) {
+            nodo.mejores[posicion] = nodo.mejores[posicion - 1];
+            nodo.mejores[--posicion] = terminal;
+        }
+    }
+
+    /*
+     * La frecuencia del terminal acaba de bajar. Si la lista no está llena contiene todo el subárbol
+     * y basta con moverlo (o quitarlo); si está llena, otro término que no estaba puede haberlo
+     * superado y la lista se rehace.
+     */
+    private void bajar(Nodo nodo, Nodo terminal) {
+        int posicion = posicion(nodo, terminal);
+        if (posicion < 0) {
+            return;
+        }
+        if (nodo.numMejores == maxMejores) {
+            rehacer(nodo);
+            return;
+        }
+        if (terminal.frecuencia == 0) {
+            System.arraycopy(nodo.mejores, posicion + 1, nodo.mejores, posicion, nodo.numMejores - posicion - 1);
+            nodo.mejores[--nodo.numMejores] = null;
+            return;
+        }
+        while (posicion + 1 < nodo.numMejores && ORDEN.compare(nodo.mejores[posicion + 1], terminal) < 0) {
+            nodo.mejores[posicion] = nodo.mejores[posicion + 1];
+            nodo.mejores[++posicion] = terminal;
+        }
+    }
+
+    private void rehacer(Nodo nodo) {
+        List<Nodo> candidatos = new ArrayList<>();
+        if (nodo.frecuencia > 0) {
+            candidatos.add(nodo);
+        }
+        for (Nodo hijo : nodo.hijos.values()) {
+            candidatos.addAll(Arrays.asList(hijo.mejores).subList(0, hijo.numMejores));
+        }
+        candidatos.sort(ORDEN);
+        int total = Math.min(maxMejores, candidatos.size());
+        Arrays.fill(nodo.mejores, null);
+        for (int i = 0; i < total; i++) {
+            nodo.mejores[i] = candidatos.get(i);
+        }
+        nodo.numMejores = total;
+    }
+
+    private static int posicion(Nodo nodo, Nodo terminal) {
+        for (int i = 0; i < nodo.numMejores; i++) {
+            if (nodo.mejores[i] == terminal) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
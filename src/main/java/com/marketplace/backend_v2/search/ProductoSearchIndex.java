@@ -0,0 +1,443 @@
+package com.marketplace.backend_v2.search;
+
+import com.marketplace.backend_v2.datasource.ReadRouting;
+import com.marketplace.backend_v2.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido en memoria sobre nombre, descripción y categoría de los productos activos,
+ * con ranking BM25 y un trie de prefijos para autocompletar. Se construye al arrancar con una
+ * lectura en streaming y se mantiene al día con los cambios de {@code ProductoService}.
+ * <p>
+ * Las lecturas comparten un read lock; las altas, cambios y bajas toman el write lock.
+ */
+@Slf4j
+@Component
+public class ProductoSearchIndex {
+
+    // Visibles en el paquete: ProductoSearchIndexTest puntúa con ellos sin poda para comparar
+    static final int PESO_NOMBRE = 3;
+    static final int PESO_CATEGORIA = 2;
+    static final int PESO_DESCRIPCION = 1;
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int MAX_EXPANSIONES_PREFIJO = 16;
+    // Términos precalculados por nodo del trie: cubre las expansiones y el límite por defecto de /search/suggest
+    private static final int MAX_SUGERENCIAS_PRECALCULADAS = 64;
+    private static final int LOTE_CONSTRUCCION = 1_000;
+
+    // Los términos son las mismas instancias que las claves de postings, no una copia por producto
+    private record Documento(int longitud, String[] terminos) {}
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private final PrefixTrie trie = new PrefixTrie(MAX_SUGERENCIAS_PRECALCULADAS);
+    private long longitudTotal;
+
+    // IDs modificados mientras se construye el índice: la construcción no debe pisarlos con datos viejos
+    private final Set<Long> modificadosDuranteConstruccion = new HashSet<>();
+    private boolean construyendo;
+
+    public ProductoSearchIndex(ProductoRepository productoRepository, PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofPlatform().name("producto-search-index").daemon().start(this::build);
+    }
+
+    public void build() {
+        long inicio = System.nanoTime();
+        withWriteLock(() -> {
+            construyendo = true;
+            modificadosDuranteConstruccion.clear();
+        });
+        try (ReadRouting.Scope primario = ReadRouting.primario()) {
+            long total = readOnlyTransaction.execute(status -> {
+                List<ProductoTexto> lote = new ArrayList<>(LOTE_CONSTRUCCION);
+                long[] contador = {0};
+                try (Stream<ProductoTexto> productos = productoRepository.streamTextoActivos()) {
+                    productos.forEach(producto -> {
+                        lote.add(producto);
+                        if (lote.size() == LOTE_CONSTRUCCION) {
+                            contador[0] += indexBuildBatch(lote);
+                            lote.clear();
+                        }
+                    });
+                }
+                contador[0] += indexBuildBatch(lote);
+                return contador[0];
+            });
+            log.info("Índice de búsqueda construido: {} productos en {} ms", total, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Error construyendo el índice de búsqueda: {}", e.getMessage(), e);
+        } finally {
+            withWriteLock(() -> {
+                construyendo = false;
+                modificadosDuranteConstruccion.clear();
+            });
+        }
+    }
+
+    private int indexBuildBatch(List<ProductoTexto> lote) {
+        lock.writeLock().lock();
+        try {
+            int indexados = 0;
+            for (ProductoTexto producto : lote) {
+                if (!modificadosDuranteConstruccion.contains(producto.id())) {
+                    indexInternal(producto);
+                    indexados++;
+                }
+            }
+            return indexados;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa (o reindexa) el producto cuando la transacción actual confirma.
+     */
+    public void indexAfterCommit(ProductoTexto producto) {
+        afterCommit(() -> withWriteLock(() -> {
+            markModified(producto.id());
+            indexInternal(producto);
+        }));
+    }
+
+    public void removeAfterCommit(Long id) {
+        afterCommit(() -> withWriteLock(() -> {
+            markModified(id);
+            removeInternal(id);
+        }));
+    }
+
+    /**
+     * IDs de los productos que mejor coinciden con {@code consulta}, ordenados por relevancia.
+     * Si la consulta no termina en espacio, el último término se trata como prefijo.
+     */
+    public List<Long> search(String consulta, int limite) {
+        List<String> tokens = TextNormalizer.tokenize(consulta);
+        if (tokens.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        boolean ultimoEsPrefijo = !Character.isWhitespace(consulta.charAt(consulta.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> terminos = new LinkedHashMap<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                terminos.put(token, 1.0);
+                if (i == tokens.size() - 1 && ultimoEsPrefijo) {
+                    // Las expansiones puntúan algo menos que la coincidencia exacta del término escrito
+                    for (String expansion : trie.complete(token, MAX_EXPANSIONES_PREFIJO)) {
+                        terminos.putIfAbsent(expansion, 0.8);
+                    }
+                }
+            }
+            return score(terminos, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Términos del índice que completan el último término de {@code prefijo}, de más a menos
+     * productos. El prefijo se normaliza igual que los textos indexados.
+     */
+    public List<String> suggest(String prefijo, int limite) {
+        String normalizado = TextNormalizer.lastTerm(prefijo);
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.complete(normalizado, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Recorre a la vez las listas de postings de los términos, ordenadas por ID, y puntúa cada
+     * producto de una vez, sin un mapa de puntuaciones parciales con una entrada por producto.
+     *
+     * Poda MaxScore: cada término tiene una cota de lo que puede sumar. Ordenados de menor a mayor
+     * cota, los primeros términos cuyas cotas juntas no superan la peor puntuación del top no pueden
+     * meter por sí solos un producto en él; sus listas no proponen candidatos y solo se consultan,
+     * saltando hasta el ID, para los productos que salen de las demás. Con prefijos cortos, que
+     * se expanden a términos presentes en casi todo el catálogo, evita recorrer esas listas enteras.
+     * El resultado es el mismo que sin poda.
+     */
+    private List<Long> score(Map<String, Double> terminos, int limite) {
+        int totalDocumentos = documentos.size();
+        double longitudMedia = totalDocumentos == 0 ? 1.0 : (double) longitudTotal / totalDocumentos;
+        Postings[] listas = new Postings[terminos.size()];
+        double[] pesos = new double[terminos.size()];
+        double[] cotas = new double[terminos.size()];
+        int total = 0;
+        for (Map.Entry<String, Double> termino : terminos.entrySet()) {
+            Postings lista = postings.get(termino.getKey());
+            if (lista == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (totalDocumentos - lista.size() + 0.5) / (lista.size() + 0.5));
+            double peso = termino.getValue() * idf;
+            double cota = peso * bm25(lista.frecuenciaMaxima(), lista.longitudMinima(), longitudMedia);
+            // Inserción ordenada por cota: como mucho hay MAX_EXPANSIONES_PREFIJO + términos de la consulta
+            int i = total++;
+            while (i > 0 && cotas[i - 1] > cota) {
+                listas[i] = listas[i - 1];
+                pesos[i] = pesos[i - 1];
+                cotas[i] = cotas[i - 1];
+                i--;
+            }
+            listas[i] = lista;
+            pesos[i] = peso;
+            cotas[i] = cota;
+        }
+        double[] cotasAcumuladas = new double[total];
+        for (int i = 0; i < total; i++) {
+            cotasAcumuladas[i] = cotas[i] + (i > 0 ? cotasAcumuladas[i - 1] : 0);
+        }
+
+        int[] cursores = new int[total];
+        int primeraEsencial = 0;
+        Mejores mejores = new Mejores(limite);
+        while (true) {
+            double umbral = mejores.umbral();
+            while (primeraEsencial < total && cotasAcumuladas[primeraEsencial] <= umbral) {
+                primeraEsencial++;
+            }
+            long id = Long.MAX_VALUE;
+            for (int i = primeraEsencial; i < total; i++) {
+                if (cursores[i] < listas[i].size()) {
+                    id = Math.min(id, listas[i].id(cursores[i]));
+                }
+            }
+            if (id == Long.MAX_VALUE) {
+                break;
+            }
+            double puntuacion = 0;
+            for (int i = primeraEsencial; i < total; i++) {
+                Postings lista = listas[i];
+                int cursor = cursores[i];
+                if (cursor < lista.size() && lista.id(cursor) == id) {
+                    puntuacion += pesos[i] * bm25(lista.frecuencia(cursor), lista.longitud(cursor), longitudMedia);
+                    cursores[i]++;
+                }
+            }
+            for (int i = primeraEsencial - 1; i >= 0 && puntuacion + cotasAcumuladas[i] > umbral; i--) {
+                Postings lista = listas[i];
+                int cursor = lista.avanzar(cursores[i], id);
+                cursores[i] = cursor;
+                if (cursor < lista.size() && lista.id(cursor) == id) {
+                    puntuacion += pesos[i] * bm25(lista.frecuencia(cursor), lista.longitud(cursor), longitudMedia);
+                }
+            }
+            mejores.add(id, puntuacion);
+        }
+        return mejores.ids();
+    }
+
+    // Parte de BM25 que depende del producto; crece con tf y decrece con la longitud
+    private static double bm25(int tf, int longitud, double longitudMedia) {
+        double normalizacion = K1 * (1 - B + B * longitud / longitudMedia);
+        return tf * (K1 + 1) / (tf + normalizacion);
+    }
+
+    // Montículo de mínimos sobre arrays con los mejores productos vistos hasta ahora
+    private static final class Mejores {
+
+        private final long[] ids;
+        private final double[] puntuaciones;
+        private int size;
+
+        private Mejores(int limite) {
+            this.ids = new long[limite];
+            this.puntuaciones = new double[limite];
+        }
+
+        // Puntuación que hay que superar para entrar; sin límite mientras no esté lleno
+        private double umbral() {
+            return size < ids.length ? Double.NEGATIVE_INFINITY : puntuaciones[0];
+        }
+
+        private void add(long id, double puntuacion) {
+            if (size < ids.length) {
+                ids[size] = id;
+                puntuaciones[size] = puntuacion;
+                subir(size++);
+            } else if (puntuaciones[0] < puntuacion) {
+                ids[0] = id;
+                puntuaciones[0] = puntuacion;
+                hundir(0);
+            }
+        }
+
+        // De mayor a menor puntuación; vacía el montículo
+        private List<Long> ids() {
+            Long[] ordenados = new Long[size];
+            while (size > 0) {
+                ordenados[size - 1] = ids[0];
+                size--;
+                intercambiar(0, size);
+                hundir(0);
+            }
+            return Arrays.asList(ordenados);
+        }
+
+        private void subir(int posicion) {
+            while (posicion > 0) {
+                int padre = (posicion - 1) / 2;
+                if (puntuaciones[padre] <= puntuaciones[posicion]) {
+                    return;
+                }
+                intercambiar(padre, posicion);
+                posicion = padre;
+            }
+        }
+
+        private void hundir(int posicion) {
+            while (true) {
+                int menor = posicion;
+                int izquierdo = 2 * posicion + 1;
+                int derecho = izquierdo + 1;
+                if (izquierdo < size && puntuaciones[izquierdo] < puntuaciones[menor]) {
+                    menor = izquierdo;
+                }
+                if (derecho < size && puntuaciones[derecho] < puntuaciones[menor]) {
+                    menor = derecho;
+                }
+                if (menor == posicion) {
+                    return;
+                }
+                intercambiar(posicion, menor);
+                posicion = menor;
+            }
+        }
+
+        private void intercambiar(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double puntuacion = puntuaciones[a];
+            puntuaciones[a] = puntuaciones[b];
+            puntuaciones[b] = puntuacion;
+        }
+    }
+
+    private void indexInternal(ProductoTexto producto) {
+        removeInternal(producto.id());
+
+        Map<String, Integer> frecuencias = new HashMap<>();
+        addTerms(frecuencias, producto.nombre(), PESO_NOMBRE);
+        addTerms(frecuencias, producto.categoria(), PESO_CATEGORIA);
+        addTerms(frecuencias, producto.descripcion(), PESO_DESCRIPCION);
+        if (frecuencias.isEmpty()) {
+            return;
+        }
+
+        int longitud = 0;
+        for (int frecuencia : frecuencias.values()) {
+            longitud += frecuencia;
+        }
+        String[] terminos = new String[frecuencias.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> frecuencia : frecuencias.entrySet()) {
+            Postings lista = postings.computeIfAbsent(frecuencia.getKey(), Postings::new);
+            lista.put(producto.id(), frecuencia.getValue(), longitud);
+            trie.add(lista.termino());
+            terminos[i++] = lista.termino();
+        }
+        documentos.put(producto.id(), new Documento(longitud, terminos));
+        longitudTotal += longitud;
+    }
+
+    private void removeInternal(Long id) {
+        Documento documento = documentos.remove(id);
+        if (documento == null) {
+            return;
+        }
+        for (String termino : documento.terminos()) {
+            Postings lista = postings.get(termino);
+            if (lista != null) {
+                lista.remove(id);
+                if (lista.size() == 0) {
+                    postings.remove(termino);
+                }
+            }
+            trie.remove(termino);
+        }
+        longitudTotal -= documento.longitud();
+    }
+
+    private void addTerms(Map<String, Integer> frecuencias, String texto, int peso) {
+        for (String token : TextNormalizer.tokenize(texto)) {
+            frecuencias.merge(token, peso, Integer::sum);
+        }
+    }
+
+    private void markModified(Long id) {
+        if (construyendo) {
+            modificadosDuranteConstruccion.add(id);
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.marketplace.backend_v2.search;
+
+// Proyección con los campos de texto que se indexan de cada producto
+public record ProductoTexto(
+        Long id,
+        String nombre,
+        String descripcion,
+        String categoria
+) {}
@@ -0,0 +1,60 @@
+package com.marketplace.backend_v2.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza texto en español para indexar y buscar: minúsculas, sin tildes ni diéresis
+ * ("Camión" y "camion" producen el mismo término) y sin palabras vacías frecuentes.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "de", "del", "la", "las", "el", "los", "un", "una", "unos", "unas", "y", "o", "u", "e",
+            "en", "con", "sin", "para", "por", "al", "a", "que", "se", "su", "sus", "lo");
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        String descompuesto = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARADORES.split(fold(text))) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Último término de {@code text} normalizado como los del índice, para completarlo como prefijo:
+     * "Mesa cami" da "cami" y "camión-" da "camion". No descarta palabras vacías, porque "de" puede
+     * ser el principio de "decoración". Cadena vacía si no hay ningún término.
+     */
+    public static String lastTerm(String text) {
+        if (text == null) {
+            return "";
+        }
+        String[] tokens = SEPARADORES.split(fold(text));
+        for (int i = tokens.length - 1; i >= 0; i--) {
+            if (!tokens[i].isEmpty()) {
+                return tokens[i];
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,94 @@
+package com.marketplace.backend_v2.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.marketplace.backend_v2.config.JwtProperties;
+import com.marketplace.backend_v2.model.Usuario;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Emite y verifica JWT firmados con HMAC. La verificación no consulta la base de datos: solo
+ * comprueba firma, expiración y la lista de tokens revocados en memoria.
+ */
+@Slf4j
+@Service
+public class JwtService {
+
+    public static final String CLAIM_USUARIO_ID = "uid";
+
+    private final JwtProperties properties;
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    // jti -> expiración; cada entrada caduca junto con el token, así la lista nunca crece sin límite
+    private final Cache<String, Instant> revocados = Caffeine.newBuilder()
+            .expireAfter(Expiry.creating((String jti, Instant expiracion) ->
+                    Duration.between(Instant.now(), expiracion)))
+            .build();
+
+    public JwtService(JwtProperties properties) {
+        this.properties = properties;
+        this.key = Keys.hmacShaKeyFor(properties.secret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .requireIssuer(properties.issuer())
+                .build();
+    }
+
+    public record TokenInfo(String id, Long usuarioId, String username, Instant expiracion) {}
+
+    public String generateToken(Usuario usuario) {
+        Instant ahora = Instant.now();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setIssuer(properties.issuer())
+                .setSubject(usuario.getUsername())
+                .claim(CLAIM_USUARIO_ID, usuario.getId())
+                .setIssuedAt(Date.from(ahora))
+                .setExpiration(Date.from(ahora.plus(properties.expiration())))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public Optional<TokenInfo> parse(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (revocados.getIfPresent(claims.getId()) != null) {
+                return Optional.empty();
+            }
+            return Optional.of(new TokenInfo(
+                    claims.getId(),
+                    claims.get(CLAIM_USUARIO_ID, Long.class),
+                    claims.getSubject(),
+                    claims.getExpiration().toInstant()));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token rechazado: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public boolean revoke(String token) {
+        Optional<TokenInfo> info = parse(token);
+        info.ifPresent(t -> revocados.put(t.id(), t.expiracion()));
+        return info.isPresent();
+    }
+}
@@ -0,0 +1,20 @@
+package com.marketplace.backend_v2.security;
+
+import com.marketplace.backend_v2.exception.DomainException;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * El pool de hashing está saturado; la petición debe rechazarse con 503 y {@code Retry-After}.
+ */
+@Getter
+public class PasswordHashingUnavailableException extends DomainException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingUnavailableException(Duration retryAfter) {
+        super("Servicio de autenticación saturado, intenta nuevamente más tarde");
+        this.retryAfter = retryAfter;
+    }
+}
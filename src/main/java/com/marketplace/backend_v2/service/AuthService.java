@@ -1,17 +1,20 @@
 package com.marketplace.backend_v2.service;
 
 import com.marketplace.backend_v2.dto.AuthDTO;
+import com.marketplace.backend_v2.exception.ConflictException;
+import com.marketplace.backend_v2.exception.InvalidCredentialsException;
 import com.marketplace.backend_v2.model.Usuario;
 import com.marketplace.backend_v2.repository.UsuarioRepository;
+import com.marketplace.backend_v2.security.JwtService;
+import com.marketplace.backend_v2.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.UUID;
 
 @Slf4j
 @Service
@@ -20,33 +23,38 @@ import java.util.UUID;
 public class AuthService {
 
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final JwtService jwtService;
 
+    // Sin transacción envolvente: el hashing no debe retener una conexión del pool mientras espera CPU
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthDTO.LoginResponse login(AuthDTO.LoginRequest loginRequest) {
-        log.info("Intentando login para usuario: {}", loginRequest.username());
-
         Optional<Usuario> usuarioOpt = usuarioRepository.findByUsername(loginRequest.username());
 
         if (usuarioOpt.isEmpty()) {
-            throw new RuntimeException("Usuario no encontrado");
+            throw new InvalidCredentialsException("Usuario no encontrado");
         }
 
         Usuario usuario = usuarioOpt.get();
 
-        if (!passwordEncoder.matches(loginRequest.password(), usuario.getPassword())) {
-            throw new RuntimeException("Contraseña incorrecta");
+        if (!passwordHasher.matches(loginRequest.password(), usuario.getPassword())) {
+            throw new InvalidCredentialsException("Contraseña incorrecta");
         }
 
         if (!usuario.getActivo()) {
-            throw new RuntimeException("Usuario inactivo");
+            throw new InvalidCredentialsException("Usuario inactivo");
         }
 
-        String token = generateToken();
-        usuario.setToken(token);
+        String token = jwtService.generateToken(usuario);
         usuario.setUltimoLogin(LocalDateTime.now());
 
+        if (passwordHasher.needsRehash(usuario.getPassword())) {
+            log.info("Actualizando coste BCrypt del usuario: {}", loginRequest.username());
+            usuario.setPassword(passwordHasher.encode(loginRequest.password()));
+        }
+
         usuarioRepository.save(usuario);
-        log.info("Login exitoso para usuario: {}", loginRequest.username());
+        log.debug("Login exitoso para usuario: {}", loginRequest.username());
 
         return AuthDTO.LoginResponse.builder()
                 .token(token)
@@ -56,46 +64,40 @@ public class AuthService {
                 .build();
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Usuario register(AuthDTO.RegisterRequest registerRequest) {
-        log.info("Registrando nuevo usuario: {}", registerRequest.username());
-
         if (usuarioRepository.existsByUsername(registerRequest.username())) {
-            throw new RuntimeException("El username ya está en uso");
+            throw new ConflictException("El username ya está en uso");
         }
 
         if (usuarioRepository.existsByEmail(registerRequest.email())) {
-            throw new RuntimeException("El email ya está en uso");
+            throw new ConflictException("El email ya está en uso");
         }
 
         Usuario usuario = Usuario.builder()
                 .username(registerRequest.username())
-                .password(passwordEncoder.encode(registerRequest.password()))
+                .password(passwordHasher.encode(registerRequest.password()))
                 .email(registerRequest.email())
                 .activo(true)
                 .build();
 
         Usuario savedUsuario = usuarioRepository.save(usuario);
-        log.info("Usuario registrado exitosamente con ID: {}", savedUsuario.getId());
+        log.debug("Usuario registrado exitosamente con ID: {}", savedUsuario.getId());
 
         return savedUsuario;
     }
 
-    public void logout(Long usuarioId) {
-        log.info("Cerrando sesión para usuario ID: {}", usuarioId);
-
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        usuario.setToken(null);
-        usuarioRepository.save(usuario);
-        log.info("Sesión cerrada exitosamente para usuario ID: {}", usuarioId);
+    // El token queda en la lista de revocados hasta su expiración; no hay estado de sesión en la base de datos
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void logout(String token) {
+        if (!jwtService.revoke(token)) {
+            throw new InvalidCredentialsException("Token no válido");
+        }
+        log.debug("Sesión cerrada exitosamente");
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean validateToken(String token) {
-        return usuarioRepository.findByToken(token).isPresent();
-    }
-
-    private String generateToken() {
-        return UUID.randomUUID().toString();
+        return jwtService.parse(token).isPresent();
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.marketplace.backend_v2.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV (RFC 4180) registro a registro: admite campos entrecomillados con comas, comillas
+ * dobles escapadas y saltos de línea, sin cargar el fichero completo en memoria.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+    private int siguiente = -2;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Devuelve el siguiente registro o {@code null} al final del fichero. Un campo entrecomillado
+     * sin cerrar se come el resto del fichero, así que {@link FormatoException} solo puede llegar en
+     * el último registro.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        while (true) {
+            if (entreComillas) {
+                if (c == -1) {
+                    throw new FormatoException("Fin de fichero dentro de un campo entrecomillado");
+                }
+                if (c == '"') {
+                    int despues = read();
+                    if (despues == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        unread(despues);
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int despues = read();
+                if (despues != '\n') {
+                    unread(despues);
+                }
+                break;
+            } else {
+                campo.append((char) c);
+            }
+            c = read();
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private int read() throws IOException {
+        if (siguiente != -2) {
+            int c = siguiente;
+            siguiente = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        siguiente = c;
+    }
+
+    /**
+     * El contenido no es CSV válido. Se distingue de los errores de lectura del fichero, que no son
+     * culpa de quien lo envía.
+     */
+    static class FormatoException extends IOException {
+
+        FormatoException(String message) {
+            super(message);
+        }
+    }
+}
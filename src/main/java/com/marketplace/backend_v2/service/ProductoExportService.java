@@ -0,0 +1,117 @@
+package com.marketplace.backend_v2.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.marketplace.backend_v2.dto.ExportFormat;
+import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductoExportService {
+
+    private static final String CSV_HEADER = "id,nombre,descripcion,precio,stock,vendedorId,categoria," +
+            "imagenUrl,fechaCreacion,vendedorNombre,vendedorEmail";
+
+    private final ProductoRepository productoRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Escribe el catálogo completo fila a fila en {@code out}. Se ejecuta dentro de una transacción
+     * de solo lectura para que el driver de PostgreSQL use un cursor y respete el fetch size; las
+     * filas son proyecciones DTO, por lo que el contexto de persistencia no acumula entidades.
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exportando catálogo en formato {}", format);
+        long rows;
+        try (Stream<ProductoDTO> productos = productoRepository.streamAllDtos()) {
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(productos, out);
+                case CSV -> writeCsv(productos, out);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exportación finalizada: {} productos", rows);
+        return rows;
+    }
+
+    private long writeNdjson(Stream<ProductoDTO> productos, OutputStream out) throws IOException {
+        long[] rows = {0};
+        try (SequenceWriter writer = objectMapper.writerFor(ProductoDTO.class)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            productos.forEach(producto -> {
+                try {
+                    writer.write(producto);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return rows[0];
+    }
+
+    private long writeCsv(Stream<ProductoDTO> productos, OutputStream out) throws IOException {
+        long[] rows = {0};
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        productos.forEach(producto -> {
+            try {
+                writeCsvRow(writer, producto);
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return rows[0];
+    }
+
+    private void writeCsvRow(Writer writer, ProductoDTO producto) throws IOException {
+        writer.write(String.valueOf(producto.id()));
+        writeCsvField(writer, producto.nombre());
+        writeCsvField(writer, producto.descripcion());
+        writeCsvField(writer, producto.precio() != null ? producto.precio().toPlainString() : null);
+        writeCsvField(writer, String.valueOf(producto.stock()));
+        writeCsvField(writer, String.valueOf(producto.vendedorId()));
+        writeCsvField(writer, producto.categoria());
+        writeCsvField(writer, producto.imagenUrl());
+        writeCsvField(writer, producto.fechaCreacion() != null ? producto.fechaCreacion().toString() : null);
+        writeCsvField(writer, producto.vendedorNombre());
+        writeCsvField(writer, producto.vendedorEmail());
+        writer.write('\n');
+    }
+
+    // RFC 4180: se entrecomillan los campos con separadores, comillas o saltos de línea
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
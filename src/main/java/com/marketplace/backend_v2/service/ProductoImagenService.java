@@ -0,0 +1,70 @@
+package com.marketplace.backend_v2.service;
+
+import com.marketplace.backend_v2.config.ImagenProperties;
+import com.marketplace.backend_v2.dto.ImagenDTO;
+import com.marketplace.backend_v2.exception.BadRequestException;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.imagen.ImagenProcessor;
+import com.marketplace.backend_v2.imagen.ImagenStore;
+import com.marketplace.backend_v2.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Imagen de un producto: genera las variantes (si no existen ya para esa misma imagen) y apunta
+ * {@code imagenUrl} a la principal. El procesamiento queda fuera de cualquier transacción; solo la
+ * actualización final del producto abre una.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductoImagenService {
+
+    private final ProductoRepository productoRepository;
+    private final ProductoService productoService;
+    private final ImagenProcessor imagenProcessor;
+    private final ImagenStore imagenStore;
+    private final ImagenProperties properties;
+
+    public ImagenDTO.Resultado guardar(Long productoId, InputStream input) throws IOException {
+        if (!productoRepository.existsById(productoId)) {
+            throw NotFoundException.producto(productoId);
+        }
+        long maxBytes = properties.maxBytes().toBytes();
+        byte[] original = input.readNBytes((int) Math.min(maxBytes + 1, Integer.MAX_VALUE - 8));
+        if (original.length > maxBytes) {
+            throw new BadRequestException("La imagen supera el máximo de " + properties.maxBytes());
+        }
+        if (original.length == 0) {
+            throw new BadRequestException("El fichero de imagen está vacío");
+        }
+
+        String id = ImagenStore.id(original);
+        if (imagenStore.existe(id)) {
+            log.debug("Imagen {} ya procesada, se reutilizan sus variantes", id);
+        } else {
+            long inicio = System.nanoTime();
+            imagenProcessor.variantes(original).forEach((tamano, datos) -> imagenStore.guardar(id, tamano, datos));
+            log.info("Variantes generadas para la imagen {} ({} bytes) en {} ms",
+                    id, original.length, (System.nanoTime() - inicio) / 1_000_000);
+        }
+
+        Map<Integer, String> variantes = new LinkedHashMap<>();
+        properties.tamanos().forEach(tamano -> variantes.put(tamano, imagenStore.url(id, tamano)));
+        String imagenUrl = variantes.get(properties.tamanoPrincipal());
+        productoService.updateImagen(productoId, imagenUrl);
+
+        return ImagenDTO.Resultado.builder()
+                .id(id)
+                .productoId(productoId)
+                .imagenUrl(imagenUrl)
+                .variantes(variantes)
+                .build();
+    }
+}
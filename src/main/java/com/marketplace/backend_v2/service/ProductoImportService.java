@@ -0,0 +1,313 @@
+package com.marketplace.backend_v2.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.backend_v2.cache.CatalogVersion;
+import com.marketplace.backend_v2.cache.ProductoCache;
+import com.marketplace.backend_v2.config.ImportProperties;
+import com.marketplace.backend_v2.dto.ExportFormat;
+import com.marketplace.backend_v2.dto.ImportDTO;
+import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.exception.BadRequestException;
+import com.marketplace.backend_v2.exception.InactiveSellerException;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.model.Vendedor;
+import com.marketplace.backend_v2.repository.VendedorRepository;
+import com.marketplace.backend_v2.search.ProductoSearchIndex;
+import com.marketplace.backend_v2.search.ProductoTexto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de productos de un vendedor. El fichero se lee en streaming, cada fila se
+ * valida contra las restricciones de {@link ProductoDTO} y las filas válidas se insertan en lotes
+ * JDBC de {@code marketplace.import.chunk-size}, cada lote en su propia transacción. Una fila
+ * inválida se reporta y no detiene el resto del fichero.
+ */
+@Slf4j
+@Service
+public class ProductoImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO productos " +
+            "(nombre, descripcion, precio, stock, vendedor_id, categoria, imagen_url, fecha_creacion, activo, visible, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // Cada lote bloquea al vendedor: si se desactiva durante la importación, los lotes siguientes entran ocultos
+    private static final String ESTADO_VENDEDOR_SQL = "SELECT estado FROM vendedores WHERE id = ? FOR SHARE";
+
+    private final VendedorRepository vendedorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ImportProperties importProperties;
+    private final ProductoCache productoCache;
+    private final ProductoSearchIndex productoSearchIndex;
+    private final CatalogVersion catalogVersion;
+    private final StatsService statsService;
+
+    public ProductoImportService(VendedorRepository vendedorRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 ImportProperties importProperties,
+                                 ProductoCache productoCache,
+                                 ProductoSearchIndex productoSearchIndex,
+                                 CatalogVersion catalogVersion,
+                                 StatsService statsService) {
+        this.vendedorRepository = vendedorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.importProperties = importProperties;
+        this.productoCache = productoCache;
+        this.productoSearchIndex = productoSearchIndex;
+        this.catalogVersion = catalogVersion;
+        this.statsService = statsService;
+    }
+
+    public ImportDTO.Resultado importar(Long vendedorId, ExportFormat format, InputStream input) throws IOException {
+        log.info("Importando productos para el vendedor con ID: {} en formato {}", vendedorId, format);
+        long inicio = System.nanoTime();
+
+        Vendedor vendedor = vendedorRepository.findById(vendedorId)
+                .orElseThrow(() -> NotFoundException.vendedor(vendedorId));
+        if (!vendedor.getEstado()) {
+            throw new InactiveSellerException();
+        }
+
+        Importacion importacion = new Importacion(vendedorId);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        switch (format) {
+            case CSV -> readCsv(reader, importacion);
+            case NDJSON -> readNdjson(reader, importacion);
+        }
+        importacion.flush();
+
+        ImportDTO.Resultado resultado = ImportDTO.Resultado.builder()
+                .vendedorId(vendedorId)
+                .filasLeidas(importacion.filas)
+                .importados(importacion.importados)
+                .rechazados(importacion.rechazados)
+                .duracionMs((System.nanoTime() - inicio) / 1_000_000)
+                .errores(importacion.errores)
+                .build();
+        log.info("Importación finalizada para el vendedor {}: {} importados, {} rechazados en {} ms",
+                vendedorId, resultado.importados(), resultado.rechazados(), resultado.duracionMs());
+        return resultado;
+    }
+
+    private void readNdjson(BufferedReader reader, Importacion importacion) throws IOException {
+        String linea;
+        while ((linea = reader.readLine()) != null) {
+            if (linea.isBlank()) {
+                continue;
+            }
+            long fila = ++importacion.filas;
+            ProductoDTO leido;
+            try {
+                leido = objectMapper.readValue(linea, ProductoDTO.class);
+            } catch (JsonProcessingException e) {
+                importacion.reject(fila, "JSON no válido: " + e.getOriginalMessage());
+                continue;
+            }
+            // Un literal null es JSON válido y Jackson lo devuelve como null
+            if (leido == null) {
+                importacion.reject(fila, "Cada línea debe ser un objeto JSON");
+            } else {
+                importacion.add(fila, leido);
+            }
+        }
+    }
+
+    // La cabecera es obligatoria y usa los mismos nombres de columna que la exportación CSV
+    private void readCsv(BufferedReader reader, Importacion importacion) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> cabecera = csv.next();
+        if (cabecera == null) {
+            return;
+        }
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < cabecera.size(); i++) {
+            columnas.put(cabecera.get(i).strip(), i);
+        }
+        if (!columnas.containsKey("nombre") || !columnas.containsKey("precio")) {
+            throw new BadRequestException("La cabecera CSV debe incluir al menos las columnas nombre y precio");
+        }
+
+        List<String> registro;
+        while ((registro = siguiente(csv, importacion)) != null) {
+            if (registro.size() == 1 && registro.get(0).isBlank()) {
+                continue;
+            }
+            long fila = ++importacion.filas;
+            try {
+                String stock = campo(registro, columnas, "stock");
+                String precio = campo(registro, columnas, "precio");
+                importacion.add(fila, ProductoDTO.builder()
+                        .nombre(campo(registro, columnas, "nombre"))
+                        .descripcion(campo(registro, columnas, "descripcion"))
+                        .precio(precio != null ? new BigDecimal(precio) : null)
+                        .stock(stock != null ? Integer.valueOf(stock) : null)
+                        .categoria(campo(registro, columnas, "categoria"))
+                        .imagenUrl(campo(registro, columnas, "imagenUrl"))
+                        .build());
+            } catch (NumberFormatException e) {
+                importacion.reject(fila, "Valor numérico no válido en precio o stock");
+            }
+        }
+    }
+
+    // Un registro mal formado se rechaza como cualquier otra fila; solo puede ser el último (CsvRecordReader#next)
+    private List<String> siguiente(CsvRecordReader csv, Importacion importacion) throws IOException {
+        try {
+            return csv.next();
+        } catch (CsvRecordReader.FormatoException e) {
+            importacion.reject(++importacion.filas, "CSV no válido: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String campo(List<String> registro, Map<String, Integer> columnas, String nombre) {
+        Integer indice = columnas.get(nombre);
+        if (indice == null || indice >= registro.size()) {
+            return null;
+        }
+        String valor = registro.get(indice);
+        return valor.isEmpty() ? null : valor;
+    }
+
+    /**
+     * Estado de una importación en curso: acumula filas válidas hasta completar un lote.
+     */
+    private final class Importacion {
+        private final Long vendedorId;
+        private final List<ProductoDTO> lote = new ArrayList<>(importProperties.chunkSize());
+        private final List<ImportDTO.ErrorFila> errores = new ArrayList<>();
+        private long filas;
+        private long importados;
+        private long rechazados;
+
+        private Importacion(Long vendedorId) {
+            this.vendedorId = vendedorId;
+        }
+
+        void add(long fila, ProductoDTO leido) {
+            // El vendedor lo fija la petición, no el fichero
+            ProductoDTO producto = ProductoDTO.builder()
+                    .nombre(leido.nombre())
+                    .descripcion(leido.descripcion())
+                    .precio(leido.precio())
+                    .stock(leido.stock())
+                    .vendedorId(vendedorId)
+                    .categoria(leido.categoria())
+                    .imagenUrl(leido.imagenUrl())
+                    .build();
+
+            Set<ConstraintViolation<ProductoDTO>> violaciones = validator.validate(producto);
+            if (!violaciones.isEmpty()) {
+                reject(fila, violaciones.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            lote.add(producto);
+            if (lote.size() >= importProperties.chunkSize()) {
+                flush();
+            }
+        }
+
+        void reject(long fila, String mensaje) {
+            rechazados++;
+            if (errores.size() < importProperties.maxErroresReportados()) {
+                errores.add(new ImportDTO.ErrorFila(fila, mensaje));
+            }
+        }
+
+        void flush() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            List<ProductoDTO> pendientes = List.copyOf(lote);
+            lote.clear();
+            transactionTemplate.executeWithoutResult(status -> insertBatch(pendientes));
+            importados += pendientes.size();
+        }
+
+        private void insertBatch(List<ProductoDTO> productos) {
+            LocalDateTime ahora = LocalDateTime.now();
+            boolean visible = Boolean.TRUE.equals(jdbcTemplate.queryForObject(ESTADO_VENDEDOR_SQL, Boolean.class, vendedorId));
+            List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                    for (ProductoDTO producto : productos) {
+                        ps.setString(1, producto.nombre());
+                        ps.setString(2, producto.descripcion());
+                        ps.setBigDecimal(3, producto.precio());
+                        ps.setInt(4, producto.stock());
+                        ps.setLong(5, vendedorId);
+                        ps.setString(6, producto.categoria());
+                        ps.setString(7, producto.imagenUrl());
+                        ps.setTimestamp(8, Timestamp.valueOf(ahora));
+                        ps.setBoolean(9, true);
+                        ps.setBoolean(10, visible);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    List<Long> generados = new ArrayList<>(productos.size());
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            generados.add(keys.getLong(1));
+                        }
+                    }
+                    return generados;
+                }
+            });
+
+            // Sin un ID por fila los agregados y el índice de búsqueda quedarían incompletos: se revierte el lote
+            if (ids.size() != productos.size()) {
+                throw new IllegalStateException("El lote insertó " + productos.size()
+                        + " productos pero el driver devolvió " + ids.size() + " IDs generados");
+            }
+            Set<String> categorias = new HashSet<>();
+            List<StatsService.Aporte> aportes = new ArrayList<>(productos.size());
+            for (int i = 0; i < productos.size(); i++) {
+                ProductoDTO producto = productos.get(i);
+                categorias.add(producto.categoria());
+                aportes.add(new StatsService.Aporte(vendedorId, producto.categoria(), 1, producto.stock(),
+                        producto.precio().multiply(BigDecimal.valueOf(producto.stock()))));
+                productoSearchIndex.indexAfterCommit(new ProductoTexto(
+                        ids.get(i), producto.nombre(), producto.descripcion(), producto.categoria()));
+            }
+            statsService.productosImportados(vendedorId, aportes);
+            productoCache.invalidateCategorias(categorias);
+            catalogVersion.productosChanged();
+        }
+    }
+}
@@ -1,17 +1,38 @@
 package com.marketplace.backend_v2.service;
 
+import com.marketplace.backend_v2.cache.CatalogVersion;
+import com.marketplace.backend_v2.cache.ProductoCache;
+import com.marketplace.backend_v2.config.PaginationProperties;
+import com.marketplace.backend_v2.dto.CursorPage;
 import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.exception.InactiveSellerException;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.exception.PreconditionFailedException;
 import com.marketplace.backend_v2.model.Producto;
 import com.marketplace.backend_v2.model.Vendedor;
 import com.marketplace.backend_v2.repository.ProductoRepository;
 import com.marketplace.backend_v2.repository.VendedorRepository;
+import com.marketplace.backend_v2.search.ProductoSearchIndex;
+import com.marketplace.backend_v2.search.ProductoTexto;
+import com.marketplace.backend_v2.web.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Las consultas son {@code readOnly}: Spring pone la sesión de Hibernate en {@code FlushMode.MANUAL}
+ * y carga las entidades en solo lectura, sin copia para dirty checking, y con réplica configurada
+ * se ejecutan en ella, sin escribir en la caché de segundo nivel ({@code ReplicaCacheMode}).
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -20,50 +41,54 @@ public class ProductoService {
 
     private final ProductoRepository productoRepository;
     private final VendedorRepository vendedorRepository;
-
-    public List<ProductoDTO> findAll() {
-        log.info("Buscando todos los productos");
-        return productoRepository.findAll().stream()
-                .map(ProductoDTO::fromEntity)
-                .toList();
+    private final PaginationProperties paginationProperties;
+    private final ProductoCache productoCache;
+    private final ProductoSearchIndex productoSearchIndex;
+    private final CatalogVersion catalogVersion;
+    private final StatsService statsService;
+
+    @Transactional(readOnly = true)
+    public CursorPage<ProductoDTO> findAll(String after, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        return toPage(productoRepository.findDtoPage(
+                CursorPage.decodeCursor(after), Limit.of(pageSize + 1)), pageSize);
     }
 
+    @Transactional(readOnly = true)
     public ProductoDTO findById(Long id) {
-        log.info("Buscando producto con ID: {}", id);
-        return productoRepository.findById(id)
-                .map(ProductoDTO::fromEntity)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+        return productoCache.getProducto(id, () -> productoRepository.findDtoById(id)
+                .orElseThrow(() -> NotFoundException.producto(id)));
     }
 
-    public List<ProductoDTO> findByVendedorId(Long vendedorId) {
-        log.info("Buscando productos del vendedor con ID: {}", vendedorId);
-        return productoRepository.findByVendedorId(vendedorId).stream()
-                .map(ProductoDTO::fromEntity)
-                .toList();
+    @Transactional(readOnly = true)
+    public CursorPage<ProductoDTO> findByVendedorId(Long vendedorId, String after, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        return toPage(productoRepository.findDtoPageByVendedorId(
+                vendedorId, CursorPage.decodeCursor(after), Limit.of(pageSize + 1)), pageSize);
     }
 
-    public List<ProductoDTO> findByCategoria(String categoria) {
-        log.info("Buscando productos por categoría: {}", categoria);
-        return productoRepository.findByCategoria(categoria).stream()
-                .map(ProductoDTO::fromEntity)
-                .toList();
+    @Transactional(readOnly = true)
+    public CursorPage<ProductoDTO> findByCategoria(String categoria, String after, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        Long afterId = CursorPage.decodeCursor(after);
+        return productoCache.getPaginaCategoria(categoria, afterId, pageSize, () -> toPage(
+                productoRepository.findDtoPageByCategoria(categoria, afterId, Limit.of(pageSize + 1)), pageSize));
     }
 
-    public List<ProductoDTO> findProductosActivos() {
-        log.info("Buscando productos activos");
-        return productoRepository.findByVendedorEstadoTrue().stream()
-                .map(ProductoDTO::fromEntity)
-                .toList();
+    @Transactional(readOnly = true)
+    public CursorPage<ProductoDTO> findProductosActivos(String after, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        Long afterId = CursorPage.decodeCursor(after);
+        return productoCache.getPaginaActivos(afterId, pageSize, () -> toPage(
+                productoRepository.findDtoPageActivos(afterId, Limit.of(pageSize + 1)), pageSize));
     }
 
     public ProductoDTO create(ProductoDTO productoDTO) {
-        log.info("Creando nuevo producto: {}", productoDTO.nombre());
-
-        Vendedor vendedor = vendedorRepository.findById(productoDTO.vendedorId())
-                .orElseThrow(() -> new RuntimeException("Vendedor no encontrado con ID: " + productoDTO.vendedorId()));
+        Vendedor vendedor = vendedorRepository.findByIdForShare(productoDTO.vendedorId())
+                .orElseThrow(() -> NotFoundException.vendedor(productoDTO.vendedorId()));
 
         if (!vendedor.getEstado()) {
-            throw new RuntimeException("No se pueden crear productos para vendedores inactivos");
+            throw new InactiveSellerException();
         }
 
         Producto producto = Producto.builder()
@@ -75,19 +100,32 @@ public class ProductoService {
                 .categoria(productoDTO.categoria())
                 .imagenUrl(productoDTO.imagenUrl())
                 .activo(true)
+                .visible(true)
                 .build();
 
         Producto savedProducto = productoRepository.save(producto);
-        log.info("Producto creado exitosamente con ID: {}", savedProducto.getId());
+        statsService.cambio(StatsService.Aporte.NINGUNO, StatsService.Aporte.de(savedProducto));
+        productoCache.invalidateProducto(savedProducto.getId(), null, savedProducto.getCategoria());
+        productoSearchIndex.indexAfterCommit(toTexto(savedProducto));
+        catalogVersion.productosChanged();
+        log.debug("Producto creado exitosamente con ID: {}", savedProducto.getId());
 
         return ProductoDTO.fromEntity(savedProducto);
     }
 
-    public ProductoDTO update(Long id, ProductoDTO productoDTO) {
-        log.info("Actualizando producto con ID: {}", id);
-
+    /**
+     * Actualiza el producto. Si se recibe {@code ifMatch}, debe coincidir con el ETag actual del
+     * producto; en caso contrario se lanza {@link PreconditionFailedException} sin modificar nada.
+     */
+    public ProductoDTO update(Long id, ProductoDTO productoDTO, String ifMatch) {
         Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+                .orElseThrow(() -> NotFoundException.producto(id));
+        if (ifMatch != null
+                && !ETags.matchesStrong(ifMatch, ETags.producto(producto.getVersion(), producto.getVendedor().getVersion()))) {
+            throw new PreconditionFailedException("El producto " + id + " ha cambiado desde la última lectura");
+        }
+        String categoriaAnterior = producto.getCategoria();
+        StatsService.Aporte aporteAnterior = StatsService.Aporte.de(producto);
 
         producto.setNombre(productoDTO.nombre());
         producto.setDescripcion(productoDTO.descripcion());
@@ -96,27 +134,80 @@ public class ProductoService {
         producto.setCategoria(productoDTO.categoria());
         producto.setImagenUrl(productoDTO.imagenUrl());
 
-        Producto updatedProducto = productoRepository.save(producto);
-        log.info("Producto actualizado exitosamente con ID: {}", updatedProducto.getId());
+        // Flush inmediato para que la versión devuelta (y su ETag) sea ya la definitiva
+        Producto updatedProducto = productoRepository.saveAndFlush(producto);
+        statsService.cambio(aporteAnterior, StatsService.Aporte.de(updatedProducto));
+        productoCache.invalidateProducto(id, categoriaAnterior, updatedProducto.getCategoria());
+        if (updatedProducto.getActivo()) {
+            productoSearchIndex.indexAfterCommit(toTexto(updatedProducto));
+        }
+        catalogVersion.productosChanged();
+        log.debug("Producto actualizado exitosamente con ID: {}", updatedProducto.getId());
 
         return ProductoDTO.fromEntity(updatedProducto);
     }
 
-    public void deleteById(Long id) {
-        log.info("Eliminando producto con ID: {}", id);
+    // Variante principal recién generada por ProductoImagenService; no toca agregados ni índice de búsqueda
+    public ProductoDTO updateImagen(Long id, String imagenUrl) {
+        Producto producto = productoRepository.findById(id)
+                .orElseThrow(() -> NotFoundException.producto(id));
+        producto.setImagenUrl(imagenUrl);
+        Producto updatedProducto = productoRepository.saveAndFlush(producto);
+        productoCache.invalidateProducto(id, updatedProducto.getCategoria(), updatedProducto.getCategoria());
+        catalogVersion.productosChanged();
+        log.debug("Imagen actualizada para el producto con ID: {}", id);
 
+        return ProductoDTO.fromEntity(updatedProducto);
+    }
+
+    public void deleteById(Long id) {
         Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+                .orElseThrow(() -> NotFoundException.producto(id));
+        StatsService.Aporte aporteAnterior = StatsService.Aporte.de(producto);
 
         producto.setActivo(false);
-        productoRepository.save(producto);
-        log.info("Producto marcado como inactivo con ID: {}", id);
+        producto.setVisible(false);
+        // Flush antes de los agregados: la fila del producto se bloquea antes que la del vendedor
+        productoRepository.saveAndFlush(producto);
+        statsService.cambio(aporteAnterior, StatsService.Aporte.NINGUNO);
+        productoCache.invalidateProducto(id, producto.getCategoria(), producto.getCategoria());
+        productoSearchIndex.removeAfterCommit(id);
+        catalogVersion.productosChanged();
+        log.debug("Producto marcado como inactivo con ID: {}", id);
     }
 
-    public List<ProductoDTO> findProductosConStock() {
-        log.info("Buscando productos con stock disponible");
-        return productoRepository.findProductosConStock().stream()
-                .map(ProductoDTO::fromEntity)
+    @Transactional(readOnly = true)
+    public CursorPage<ProductoDTO> findProductosConStock(String after, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        return toPage(productoRepository.findDtoPageConStock(
+                CursorPage.decodeCursor(after), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductoDTO> search(String consulta, Integer limit) {
+        List<Long> ids = productoSearchIndex.search(consulta, paginationProperties.resolveLimit(limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductoDTO> porId = productoRepository.findDtoActivosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductoDTO::id, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
+
+    // Solo consulta el índice en memoria: sin transacción no se pide conexión al pool
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<String> suggest(String prefijo, Integer limit) {
+        return productoSearchIndex.suggest(prefijo, paginationProperties.resolveLimit(limit));
+    }
+
+    private ProductoTexto toTexto(Producto producto) {
+        return new ProductoTexto(producto.getId(), producto.getNombre(), producto.getDescripcion(), producto.getCategoria());
+    }
+
+    private CursorPage<ProductoDTO> toPage(List<ProductoDTO> productos, int pageSize) {
+        return CursorPage.of(productos, pageSize, ProductoDTO::id);
+    }
 }
\ No newline at end of file
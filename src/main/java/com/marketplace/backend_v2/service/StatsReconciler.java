@@ -0,0 +1,87 @@
+package com.marketplace.backend_v2.service;
+
+import com.marketplace.backend_v2.config.StatsProperties;
+import com.marketplace.backend_v2.repository.StatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Recalcula los agregados de {@link StatsService} desde productos y corrige las filas desviadas.
+ * Recorre los vendedores por rangos de ID, una transacción por rango, para no bloquear todas las
+ * filas a la vez. Se ejecuta al arrancar (rellena los agregados de un catálogo ya existente) y
+ * después cada {@code marketplace.stats.reconciliation-interval}; las filas corregidas se cuentan
+ * en {@code marketplace.stats.drift}.
+ * <p>
+ * Cada {@code marketplace.stats.fold-interval} suma además a vendedor_stats los movimientos de
+ * stock pendientes, en lotes de {@code marketplace.stats.fold-chunk-size}.
+ */
+@Slf4j
+@Component
+public class StatsReconciler {
+
+    private final StatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StatsProperties statsProperties;
+    private final Counter driftVendedores;
+    private final Counter driftCategorias;
+
+    public StatsReconciler(StatsRepository statsRepository,
+                           PlatformTransactionManager transactionManager,
+                           StatsProperties statsProperties,
+                           MeterRegistry meterRegistry) {
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statsProperties = statsProperties;
+        this.driftVendedores = meterRegistry.counter("marketplace.stats.drift", "agregado", "vendedor");
+        this.driftCategorias = meterRegistry.counter("marketplace.stats.drift", "agregado", "categoria");
+    }
+
+    @Scheduled(fixedDelayString = "${marketplace.stats.fold-interval:10s}")
+    public void fold() {
+        int lote = statsProperties.foldChunkSize();
+        int plegados;
+        int total = 0;
+        do {
+            plegados = transactionTemplate.execute(status -> statsRepository.foldMovimientos(lote));
+            total += plegados;
+        } while (plegados == lote);
+        if (total > 0) {
+            log.debug("{} movimientos de stock sumados a los agregados", total);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${marketplace.stats.reconciliation-interval:1h}")
+    public void reconcile() {
+        long inicio = System.nanoTime();
+        int vendedores = 0;
+        long after = 0;
+        List<Long> ids;
+        do {
+            ids = statsRepository.findVendedorIds(after, statsProperties.reconciliationChunkSize());
+            if (ids.isEmpty()) {
+                break;
+            }
+            long desde = ids.getFirst();
+            long hasta = ids.getLast();
+            vendedores += transactionTemplate.execute(status -> statsRepository.reconcileVendedores(desde, hasta));
+            after = hasta;
+        } while (ids.size() == statsProperties.reconciliationChunkSize());
+        int categorias = transactionTemplate.execute(status -> statsRepository.reconcileCategorias());
+
+        driftVendedores.increment(vendedores);
+        driftCategorias.increment(categorias);
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        if (vendedores > 0 || categorias > 0) {
+            log.warn("Reconciliación de agregados: {} vendedores y {} categorías corregidos en {} ms", vendedores, categorias, ms);
+        } else {
+            log.info("Reconciliación de agregados sin desviaciones en {} ms", ms);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.marketplace.backend_v2.service;
+
+import com.marketplace.backend_v2.dto.StatsDTO;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.model.Producto;
+import com.marketplace.backend_v2.repository.StatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Agregados por vendedor (productos, unidades, valor del inventario) y por categoría (productos),
+ * mantenidos como contadores en la transacción de cada escritura. Las lecturas son una fila por
+ * clave en lugar de recorrer el catálogo.
+ * <p>
+ * Orden de bloqueo: primero las filas de productos (las toma la propia escritura), después la fila
+ * del vendedor y por último las categorías en orden alfabético. Reservas y liberaciones no bloquean
+ * la fila del vendedor: insertan un movimiento que {@link StatsReconciler} suma después, y que
+ * también corrige cualquier desviación.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class StatsService {
+
+    private final StatsRepository statsRepository;
+
+    /**
+     * Lo que un producto suma a los agregados. Los inactivos no cuentan; los productos sin
+     * categoría cuentan para su vendedor pero no aparecen por categoría.
+     */
+    public record Aporte(Long vendedorId, String categoria, long productos, long unidades, BigDecimal valor) {
+
+        public static final Aporte NINGUNO = new Aporte(null, null, 0, 0, BigDecimal.ZERO);
+
+        public static Aporte de(Producto producto) {
+            if (!Boolean.TRUE.equals(producto.getActivo())) {
+                return NINGUNO;
+            }
+            long unidades = producto.getStock() == null ? 0 : producto.getStock();
+            return new Aporte(producto.getVendedor().getId(), producto.getCategoria(), 1, unidades,
+                    producto.getPrecio().multiply(BigDecimal.valueOf(unidades)));
+        }
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
+    public StatsDTO.Vendedor findVendedor(Long vendedorId) {
+        return statsRepository.findVendedor(vendedorId)
+                .orElseThrow(() -> NotFoundException.vendedor(vendedorId));
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
+    public List<StatsDTO.Categoria> findCategorias() {
+        return statsRepository.findCategorias();
+    }
+
+    /**
+     * Aplica la diferencia entre el aporte de un producto antes y después de un alta, cambio o baja.
+     * El vendedor de un producto no cambia, así que como mucho se toca una fila de vendedor.
+     */
+    public void cambio(Aporte antes, Aporte despues) {
+        Long vendedorId = despues.vendedorId() != null ? despues.vendedorId() : antes.vendedorId();
+        if (vendedorId == null) {
+            return;
+        }
+        long productos = despues.productos() - antes.productos();
+        long unidades = despues.unidades() - antes.unidades();
+        BigDecimal valor = despues.valor().subtract(antes.valor());
+        if (productos != 0 || unidades != 0 || valor.signum() != 0) {
+            statsRepository.addVendedor(vendedorId, productos, unidades, valor);
+        }
+
+        Map<String, Long> categorias = new TreeMap<>();
+        if (antes.categoria() != null) {
+            categorias.merge(antes.categoria(), -antes.productos(), Long::sum);
+        }
+        if (despues.categoria() != null) {
+            categorias.merge(despues.categoria(), despues.productos(), Long::sum);
+        }
+        categorias.forEach((categoria, delta) -> {
+            if (delta != 0) {
+                statsRepository.addCategoria(categoria, delta);
+            }
+        });
+    }
+
+    // Reservas y liberaciones: solo cambian las unidades y el valor del vendedor, como movimiento pendiente
+    public void stock(Long productoId, int cantidad) {
+        statsRepository.addStock(productoId, cantidad);
+    }
+
+    public void stock(Map<Long, Integer> porProducto) {
+        statsRepository.addStock(porProducto);
+    }
+
+    public void productosImportados(Long vendedorId, Collection<Aporte> aportes) {
+        long unidades = 0;
+        BigDecimal valor = BigDecimal.ZERO;
+        Map<String, Long> categorias = new TreeMap<>();
+        for (Aporte aporte : aportes) {
+            unidades += aporte.unidades();
+            valor = valor.add(aporte.valor());
+            if (aporte.categoria() != null) {
+                categorias.merge(aporte.categoria(), aporte.productos(), Long::sum);
+            }
+        }
+        statsRepository.addVendedor(vendedorId, aportes.size(), unidades, valor);
+        categorias.forEach(statsRepository::addCategoria);
+    }
+
+    public void vendedorCreado(Long vendedorId) {
+        statsRepository.createVendedor(vendedorId);
+    }
+
+    // Baja de un vendedor por lotes: la fila del vendedor desaparece con él (ON DELETE CASCADE), pero
+    // se descuenta lote a lote para que una baja interrumpida deje los contadores al día
+    public void productosEliminados(Long vendedorId, Collection<Long> productoIds) {
+        statsRepository.removeProductos(vendedorId, productoIds);
+    }
+}
@@ -0,0 +1,153 @@
+package com.marketplace.backend_v2.service;
+
+import com.marketplace.backend_v2.cache.CatalogVersion;
+import com.marketplace.backend_v2.cache.ProductoCache;
+import com.marketplace.backend_v2.dto.StockDTO;
+import com.marketplace.backend_v2.exception.DomainException;
+import com.marketplace.backend_v2.exception.InactiveProductException;
+import com.marketplace.backend_v2.exception.InactiveSellerException;
+import com.marketplace.backend_v2.exception.InsufficientStockException;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.model.Producto;
+import com.marketplace.backend_v2.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reservas y liberaciones de stock con un único UPDATE condicional por producto: no hay lectura
+ * previa, así que no se pierden actualizaciones y el bloqueo de fila dura solo lo que la sentencia.
+ * Solo se reserva stock de productos visibles (activos y de un vendedor activo) y solo se libera
+ * de productos activos: las reservas hechas antes de desactivar al vendedor se pueden devolver. Los agregados del vendedor reciben un movimiento
+ * pendiente ({@link StatsService#stock}) sin bloquear su fila, así que las reservas de productos
+ * distintos de un mismo vendedor no se esperan entre sí.
+ * <p>
+ * Los UPDATE no pasan por Hibernate ({@link ProductoRepository#STOCK_SPACE}): cada operación
+ * desaloja de la caché de segundo nivel los productos que ha tocado, al ejecutarse y otra vez tras
+ * el commit, por si una lectura concurrente volvió a cargar la fila anterior entre medias.
+ * <p>
+ * Cada operación sube la versión de los listados de productos ({@link CatalogVersion}): todos
+ * muestran el stock y la versión de cada producto, así que cualquier reserva cambia su contenido y
+ * no solo el de {@code /productos/stock} cuando el stock llega a cero. Con tráfico de checkout
+ * los listados apenas responden 304; es el precio de no servir un stock que ya no existe.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockService {
+
+    private final ProductoRepository productoRepository;
+    private final ProductoCache productoCache;
+    private final CatalogVersion catalogVersion;
+    private final StatsService statsService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void reserve(Long productoId, int cantidad) {
+        log.debug("Reservando {} unidades del producto con ID: {}", cantidad, productoId);
+        if (productoRepository.reserveStock(productoId, cantidad) == 0) {
+            throw failure(productoId, cantidad);
+        }
+        statsService.stock(productoId, -cantidad);
+        evict(List.of(productoId));
+        productoCache.invalidateStock(productoId);
+        catalogVersion.productosChanged();
+    }
+
+    public void release(Long productoId, int cantidad) {
+        log.debug("Liberando {} unidades del producto con ID: {}", cantidad, productoId);
+        if (productoRepository.releaseStock(productoId, cantidad) == 0) {
+            throw releaseFailure(productoId);
+        }
+        statsService.stock(productoId, cantidad);
+        evict(List.of(productoId));
+        productoCache.invalidateStock(productoId);
+        catalogVersion.productosChanged();
+    }
+
+    /**
+     * Reserva varios productos de forma atómica. Las filas se bloquean siempre en orden de ID, de
+     * modo que dos reservas concurrentes con productos en común no pueden entrar en deadlock; si un
+     * producto no tiene stock suficiente se revierte todo el lote.
+     */
+    public void reserve(List<StockDTO.Item> items) {
+        Map<Long, Integer> porProducto = mergeByProducto(items);
+        log.debug("Reservando stock de {} productos", porProducto.size());
+        porProducto.forEach((productoId, cantidad) -> {
+            if (productoRepository.reserveStock(productoId, cantidad) == 0) {
+                throw failure(productoId, cantidad);
+            }
+        });
+        porProducto.replaceAll((productoId, cantidad) -> -cantidad);
+        statsService.stock(porProducto);
+        evict(porProducto.keySet());
+        porProducto.keySet().forEach(productoCache::invalidateStock);
+        catalogVersion.productosChanged();
+    }
+
+    public void release(List<StockDTO.Item> items) {
+        Map<Long, Integer> porProducto = mergeByProducto(items);
+        log.debug("Liberando stock de {} productos", porProducto.size());
+        porProducto.forEach((productoId, cantidad) -> {
+            if (productoRepository.releaseStock(productoId, cantidad) == 0) {
+                throw releaseFailure(productoId);
+            }
+        });
+        statsService.stock(porProducto);
+        evict(porProducto.keySet());
+        porProducto.keySet().forEach(productoCache::invalidateStock);
+        catalogVersion.productosChanged();
+    }
+
+    // TreeMap: ordena por ID y suma las cantidades de un mismo producto repetido en el lote
+    private Map<Long, Integer> mergeByProducto(List<StockDTO.Item> items) {
+        Map<Long, Integer> porProducto = new TreeMap<>();
+        items.forEach(item -> porProducto.merge(item.productoId(), item.cantidad(), Integer::sum));
+        return porProducto;
+    }
+
+    // Solo en el camino de error se distingue entre producto inexistente, inactivo, oculto y stock insuficiente
+    private DomainException failure(Long productoId, int cantidad) {
+        Producto producto = productoRepository.findById(productoId).orElse(null);
+        if (producto == null) {
+            return NotFoundException.producto(productoId);
+        }
+        if (!producto.getActivo()) {
+            return new InactiveProductException(productoId);
+        }
+        if (!producto.getVisible()) {
+            return InactiveSellerException.stock(productoId);
+        }
+        return new InsufficientStockException(productoId, cantidad);
+    }
+
+    private DomainException releaseFailure(Long productoId) {
+        if (!productoRepository.existsById(productoId)) {
+            return NotFoundException.producto(productoId);
+        }
+        return new InactiveProductException(productoId);
+    }
+
+    private void evict(Collection<Long> productoIds) {
+        List<Long> ids = List.copyOf(productoIds);
+        Runnable action = () -> ids.forEach(id -> entityManagerFactory.getCache().evict(Producto.class, id));
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.marketplace.backend_v2.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.marketplace.backend_v2.cache.CatalogVersion;
+import com.marketplace.backend_v2.cache.ProductoCache;
+import com.marketplace.backend_v2.config.BajaVendedorProperties;
+import com.marketplace.backend_v2.dto.BajaVendedorDTO;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.model.Vendedor;
+import com.marketplace.backend_v2.repository.ProductoRepository;
+import com.marketplace.backend_v2.repository.VendedorRepository;
+import com.marketplace.backend_v2.search.ProductoSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Baja de vendedores sin la cascada de JPA, que cargaba todos los productos del vendedor y los
+ * borraba uno a uno en una sola transacción. Aquí la baja va en tres pasos, cada uno en su propia
+ * transacción:
+ * <ol>
+ *     <li>Ocultar: {@code estado = false} y una sola sentencia sobre la visibilidad de sus productos,
+ *     igual que al desactivarlo. Desde aquí el catálogo público ya no muestra nada del vendedor.</li>
+ *     <li>Borrar los productos en lotes de {@code marketplace.vendedores.baja.chunk-size}, descontando
+ *     los agregados de cada lote antes del DELETE.</li>
+ *     <li>Bloquear el vendedor, borrar lo que haya insertado una importación en curso y borrarlo.</li>
+ * </ol>
+ * Si la baja se interrumpe, el vendedor queda inactivo con los productos que falten y una nueva
+ * baja continúa donde se quedó. Las bajas asíncronas se ejecutan en el executor de tareas de la
+ * aplicación; su progreso se consulta por ID mientras duran y durante
+ * {@code marketplace.vendedores.baja.retencion} después.
+ */
+@Slf4j
+@Service
+public class VendedorBajaService {
+
+    private final VendedorRepository vendedorRepository;
+    private final ProductoRepository productoRepository;
+    private final StatsService statsService;
+    private final ProductoCache productoCache;
+    private final ProductoSearchIndex productoSearchIndex;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor taskExecutor;
+    private final BajaVendedorProperties properties;
+    private final Cache<String, Baja> bajas;
+    private final Map<Long, Baja> enCurso = new ConcurrentHashMap<>();
+
+    public VendedorBajaService(VendedorRepository vendedorRepository,
+                               ProductoRepository productoRepository,
+                               StatsService statsService,
+                               ProductoCache productoCache,
+                               ProductoSearchIndex productoSearchIndex,
+                               CatalogVersion catalogVersion,
+                               PlatformTransactionManager transactionManager,
+                               @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                               AsyncTaskExecutor taskExecutor,
+                               BajaVendedorProperties properties) {
+        this.vendedorRepository = vendedorRepository;
+        this.productoRepository = productoRepository;
+        this.statsService = statsService;
+        this.productoCache = productoCache;
+        this.productoSearchIndex = productoSearchIndex;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.properties = properties;
+        // Las bajas en curso no caducan; las terminadas se guardan durante la retención
+        this.bajas = Caffeine.newBuilder()
+                .expireAfter(Expiry.writing((String id, Baja baja) ->
+                        baja.terminada() ? properties.retencion() : Duration.ofNanos(Long.MAX_VALUE)))
+                .build();
+    }
+
+    /**
+     * Ejecuta la baja en el hilo que llama. Si ya había una baja en curso para el vendedor devuelve
+     * su progreso sin esperar a que termine.
+     */
+    public BajaVendedorDTO.Progreso eliminar(Long vendedorId) {
+        Baja baja = registrar(vendedorId);
+        if (baja.reclamar()) {
+            ejecutar(baja);
+            if (baja.fallo != null) {
+                throw baja.fallo;
+            }
+        }
+        return baja.toDto();
+    }
+
+    // Como eliminar, pero en el executor de tareas: devuelve el progreso inicial
+    public BajaVendedorDTO.Progreso eliminarAsync(Long vendedorId) {
+        Baja baja = registrar(vendedorId);
+        if (baja.reclamar()) {
+            try {
+                taskExecutor.execute(() -> ejecutar(baja));
+            } catch (TaskRejectedException e) {
+                baja.terminar(BajaVendedorDTO.Estado.FALLIDA, e);
+                cerrar(baja);
+                throw e;
+            }
+        }
+        return baja.toDto();
+    }
+
+    public BajaVendedorDTO.Progreso findById(String id) {
+        Baja baja = bajas.getIfPresent(id);
+        if (baja == null) {
+            throw new NotFoundException("Baja de vendedor no encontrada con ID: " + id);
+        }
+        return baja.toDto();
+    }
+
+    private Baja registrar(Long vendedorId) {
+        if (!vendedorRepository.existsById(vendedorId)) {
+            throw NotFoundException.vendedor(vendedorId);
+        }
+        Baja baja = enCurso.computeIfAbsent(vendedorId, Baja::new);
+        bajas.put(baja.id, baja);
+        return baja;
+    }
+
+    private void ejecutar(Baja baja) {
+        Long vendedorId = baja.vendedorId;
+        try {
+            baja.total = transactionTemplate.execute(status -> ocultar(vendedorId));
+            log.info("Baja del vendedor {}: {} productos por borrar", vendedorId, baja.total);
+
+            int borrados;
+            do {
+                borrados = transactionTemplate.execute(status -> borrarLote(vendedorId));
+                baja.borrados.addAndGet(borrados);
+            } while (borrados == properties.chunkSize());
+
+            transactionTemplate.executeWithoutResult(status -> borrarVendedor(baja));
+            baja.terminar(BajaVendedorDTO.Estado.COMPLETADA, null);
+            log.info("Vendedor {} eliminado: {} productos borrados", vendedorId, baja.borrados.get());
+        } catch (RuntimeException e) {
+            baja.terminar(BajaVendedorDTO.Estado.FALLIDA, e);
+            log.error("Baja del vendedor {} interrumpida tras borrar {} productos", vendedorId, baja.borrados.get(), e);
+        } finally {
+            cerrar(baja);
+        }
+    }
+
+    // Reinsertar con el estado final hace que empiece a contar la retención
+    private void cerrar(Baja baja) {
+        enCurso.remove(baja.vendedorId, baja);
+        bajas.put(baja.id, baja);
+    }
+
+    private long ocultar(Long vendedorId) {
+        Vendedor vendedor = vendedorRepository.findByIdForUpdate(vendedorId)
+                .orElseThrow(() -> NotFoundException.vendedor(vendedorId));
+        if (vendedor.getEstado()) {
+            vendedor.setEstado(false);
+            vendedorRepository.saveAndFlush(vendedor);
+            productoRepository.updateVisibleByVendedorId(vendedorId, false);
+        }
+        productoCache.invalidateVendedor(vendedorId, true);
+        catalogVersion.vendedoresChanged();
+        catalogVersion.productosChanged();
+        return productoRepository.countByVendedorId(vendedorId);
+    }
+
+    private int borrarLote(Long vendedorId) {
+        List<Long> ids = productoRepository.findIdsByVendedorIdForUpdate(vendedorId, Limit.of(properties.chunkSize()));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Antes del DELETE: los agregados se calculan a partir de las filas que se van a borrar
+        statsService.productosEliminados(vendedorId, ids);
+        productoRepository.deleteAllByIdInBatch(ids);
+        ids.forEach(productoSearchIndex::removeAfterCommit);
+        productoCache.invalidateVendedor(vendedorId, false);
+        catalogVersion.productosChanged();
+        return ids.size();
+    }
+
+    private void borrarVendedor(Baja baja) {
+        Long vendedorId = baja.vendedorId;
+        Vendedor vendedor = vendedorRepository.findByIdForUpdate(vendedorId)
+                .orElseThrow(() -> NotFoundException.vendedor(vendedorId));
+        int borrados;
+        while ((borrados = borrarLote(vendedorId)) > 0) {
+            baja.borrados.addAndGet(borrados);
+        }
+        vendedorRepository.delete(vendedor);
+        productoCache.invalidateVendedor(vendedorId, true);
+        catalogVersion.vendedoresChanged();
+    }
+
+    /**
+     * Estado de una baja: lo escribe el hilo que la ejecuta y lo leen las consultas de progreso.
+     */
+    private static final class Baja {
+        private final String id = UUID.randomUUID().toString();
+        private final Long vendedorId;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final AtomicLong borrados = new AtomicLong();
+        private final AtomicBoolean iniciada = new AtomicBoolean();
+        private volatile BajaVendedorDTO.Estado estado = BajaVendedorDTO.Estado.EN_CURSO;
+        private volatile Long total;
+        private volatile LocalDateTime fin;
+        private volatile RuntimeException fallo;
+
+        private Baja(Long vendedorId) {
+            this.vendedorId = vendedorId;
+        }
+
+        boolean reclamar() {
+            return iniciada.compareAndSet(false, true);
+        }
+
+        boolean terminada() {
+            return estado != BajaVendedorDTO.Estado.EN_CURSO;
+        }
+
+        void terminar(BajaVendedorDTO.Estado estadoFinal, RuntimeException error) {
+            fallo = error;
+            fin = LocalDateTime.now();
+            estado = estadoFinal;
+        }
+
+        BajaVendedorDTO.Progreso toDto() {
+            return BajaVendedorDTO.Progreso.builder()
+                    .id(id)
+                    .vendedorId(vendedorId)
+                    .estado(estado)
+                    .productosTotal(total)
+                    .productosBorrados(borrados.get())
+                    .inicio(inicio)
+                    .fin(fin)
+                    .error(fallo != null ? fallo.getMessage() : null)
+                    .build();
+        }
+    }
+}
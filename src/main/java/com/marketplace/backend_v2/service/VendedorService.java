@@ -1,10 +1,21 @@
 package com.marketplace.backend_v2.service;
 
+import com.marketplace.backend_v2.cache.CatalogVersion;
+import com.marketplace.backend_v2.cache.ProductoCache;
+import com.marketplace.backend_v2.config.PaginationProperties;
+import com.marketplace.backend_v2.datasource.ReadRouting;
+import com.marketplace.backend_v2.dto.CursorPage;
 import com.marketplace.backend_v2.dto.VendedorDTO;
+import com.marketplace.backend_v2.exception.ConflictException;
+import com.marketplace.backend_v2.exception.NotFoundException;
+import com.marketplace.backend_v2.exception.PreconditionFailedException;
 import com.marketplace.backend_v2.model.Vendedor;
+import com.marketplace.backend_v2.repository.ProductoRepository;
 import com.marketplace.backend_v2.repository.VendedorRepository;
+import com.marketplace.backend_v2.web.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,26 +28,29 @@ import java.util.List;
 public class VendedorService {
 
     private final VendedorRepository vendedorRepository;
-
-    public List<VendedorDTO> findAll() {
-        log.info("Buscando todos los vendedores");
-        return vendedorRepository.findAll().stream()
-                .map(VendedorDTO::fromEntity)
-                .toList();
+    private final ProductoRepository productoRepository;
+    private final PaginationProperties paginationProperties;
+    private final ProductoCache productoCache;
+    private final CatalogVersion catalogVersion;
+    private final StatsService statsService;
+
+    @Transactional(readOnly = true)
+    public CursorPage<VendedorDTO> findAll(String after, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        return toPage(vendedorRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decodeCursor(after), Limit.of(pageSize + 1)), pageSize);
     }
 
+    @Transactional(readOnly = true)
     public VendedorDTO findById(Long id) {
-        log.info("Buscando vendedor con ID: {}", id);
         return vendedorRepository.findById(id)
                 .map(VendedorDTO::fromEntity)
-                .orElseThrow(() -> new RuntimeException("Vendedor no encontrado con ID: " + id));
+                .orElseThrow(() -> NotFoundException.vendedor(id));
     }
 
     public VendedorDTO create(VendedorDTO vendedorDTO) {
-        log.info("Creando nuevo vendedor: {}", vendedorDTO.email());
-
         if (vendedorRepository.existsByEmail(vendedorDTO.email())) {
-            throw new RuntimeException("Ya existe un vendedor con el email: " + vendedorDTO.email());
+            throw new ConflictException("Ya existe un vendedor con el email: " + vendedorDTO.email());
         }
 
         Vendedor vendedor = Vendedor.builder()
@@ -49,20 +63,23 @@ public class VendedorService {
                 .build();
 
         Vendedor savedVendedor = vendedorRepository.save(vendedor);
-        log.info("Vendedor creado exitosamente con ID: {}", savedVendedor.getId());
+        statsService.vendedorCreado(savedVendedor.getId());
+        catalogVersion.vendedoresChanged();
+        log.debug("Vendedor creado exitosamente con ID: {}", savedVendedor.getId());
 
         return VendedorDTO.fromEntity(savedVendedor);
     }
 
-    public VendedorDTO update(Long id, VendedorDTO vendedorDTO) {
-        log.info("Actualizando vendedor con ID: {}", id);
-
+    public VendedorDTO update(Long id, VendedorDTO vendedorDTO, String ifMatch) {
         Vendedor vendedor = vendedorRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Vendedor no encontrado con ID: " + id));
+                .orElseThrow(() -> NotFoundException.vendedor(id));
+        if (ifMatch != null && !ETags.matchesStrong(ifMatch, ETags.vendedor(vendedor.getVersion()))) {
+            throw new PreconditionFailedException("El vendedor " + id + " ha cambiado desde la última lectura");
+        }
 
         if (!vendedor.getEmail().equals(vendedorDTO.email()) &&
                 vendedorRepository.existsByEmail(vendedorDTO.email())) {
-            throw new RuntimeException("Ya existe un vendedor con el email: " + vendedorDTO.email());
+            throw new ConflictException("Ya existe un vendedor con el email: " + vendedorDTO.email());
         }
 
         vendedor.setNombre(vendedorDTO.nombre());
@@ -71,31 +88,36 @@ public class VendedorService {
         vendedor.setDireccion(vendedorDTO.direccion());
         vendedor.setRucDni(vendedorDTO.rucDni());
 
+        boolean estadoCambiado = vendedorDTO.estado() != null && !vendedorDTO.estado().equals(vendedor.getEstado());
         if (vendedorDTO.estado() != null) {
             vendedor.setEstado(vendedorDTO.estado());
         }
 
-        Vendedor updatedVendedor = vendedorRepository.save(vendedor);
-        log.info("Vendedor actualizado exitosamente con ID: {}", updatedVendedor.getId());
+        Vendedor updatedVendedor = vendedorRepository.saveAndFlush(vendedor);
+        if (estadoCambiado) {
+            int productos = productoRepository.updateVisibleByVendedorId(id, updatedVendedor.getEstado());
+            log.debug("Visibilidad actualizada en {} productos del vendedor {}", productos, id);
+        }
+        productoCache.invalidateVendedor(id, estadoCambiado);
+        catalogVersion.vendedoresChanged();
+        log.debug("Vendedor actualizado exitosamente con ID: {}", updatedVendedor.getId());
 
         return VendedorDTO.fromEntity(updatedVendedor);
     }
 
-    public void deleteById(Long id) {
-        log.info("Eliminando vendedor con ID: {}", id);
-
-        if (!vendedorRepository.existsById(id)) {
-            throw new RuntimeException("Vendedor no encontrado con ID: " + id);
+    // Consulta en la caché de consultas de Hibernate: un resultado leído de la réplica quedaría cacheado
+    @Transactional(readOnly = true)
+    public CursorPage<VendedorDTO> findByEstadoTrue(String after, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        try (ReadRouting.Scope primario = ReadRouting.primario()) {
+            return toPage(vendedorRepository.findByEstadoTrueAndIdGreaterThanOrderByIdAsc(
+                    CursorPage.decodeCursor(after), Limit.of(pageSize + 1)), pageSize);
         }
-
-        vendedorRepository.deleteById(id);
-        log.info("Vendedor eliminado exitosamente con ID: {}", id);
     }
 
-    public List<VendedorDTO> findByEstadoTrue() {
-        log.info("Buscando vendedores activos");
-        return vendedorRepository.findByEstadoTrue().stream()
+    private CursorPage<VendedorDTO> toPage(List<Vendedor> vendedores, int pageSize) {
+        return CursorPage.of(vendedores.stream()
                 .map(VendedorDTO::fromEntity)
-                .toList();
+                .toList(), pageSize, VendedorDTO::id);
     }
 }
\ No newline at end of file
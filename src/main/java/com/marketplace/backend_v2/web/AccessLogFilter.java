@@ -0,0 +1,111 @@
+package com.marketplace.backend_v2.web;
+
+import com.marketplace.backend_v2.config.AccessLogProperties;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Una línea de access log por petición, con pares clave-valor en lugar de un mensaje formateado:
+ * método, ruta del mapping (no la URI, para que el muestreo y el análisis agrupen por endpoint),
+ * estado, duración en microsegundos y la tasa de muestreo aplicada, para poder reponderar los
+ * conteos. Se escribe en el logger {@code ACCESS}, que {@code logback-spring.xml} envía a su propio
+ * appender asíncrono.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("ACCESS");
+    private static final String SIN_RUTA = "-";
+
+    private final AccessLogProperties properties;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(AccessLogProperties properties) {
+        this.properties = properties;
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!ACCESS.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long inicio = System.nanoTime();
+        boolean fallo = true;
+        try {
+            filterChain.doFilter(request, response);
+            fallo = false;
+        } finally {
+            if (!fallo && request.isAsyncStarted()) {
+                // Exportación en streaming: el estado y la duración solo se conocen al completar
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        registrar(request, response.getStatus(), System.nanoTime() - inicio);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                // Una excepción que llega hasta aquí la convierte el contenedor en 500
+                registrar(request, fallo ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                        System.nanoTime() - inicio);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, int estado, long nanos) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String ruta = patron != null ? patron.toString() : SIN_RUTA;
+        String metodo = request.getMethod();
+
+        double tasa;
+        if (estado >= 400 || nanos >= slowThresholdNanos) {
+            tasa = 1.0;
+        } else if (HttpMethod.GET.matches(metodo) || HttpMethod.HEAD.matches(metodo)) {
+            tasa = properties.sampleRate(ruta);
+        } else {
+            tasa = properties.writeSampleRate();
+        }
+        if (tasa < 1.0 && ThreadLocalRandom.current().nextDouble() >= tasa) {
+            return;
+        }
+
+        ACCESS.atLevel(estado >= 500 ? Level.WARN : Level.INFO)
+                .addKeyValue("metodo", metodo)
+                .addKeyValue("ruta", ruta)
+                .addKeyValue("estado", estado)
+                .addKeyValue("us", nanos / 1_000)
+                .addKeyValue("muestra", tasa)
+                .log();
+    }
+}
@@ -0,0 +1,113 @@
+package com.marketplace.backend_v2.web;
+
+import com.marketplace.backend_v2.dto.ProductoDTO;
+import com.marketplace.backend_v2.dto.VendedorDTO;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * ETags fuertes derivados de la columna {@code @Version} (o del contenido, en las imágenes) y
+ * comparación de las cabeceras
+ * {@code If-None-Match} / {@code If-Match}.
+ * <p>
+ * Una misma versión se sirve en JSON, Smile o CBOR, con bytes distintos en cada caso, así que cada
+ * codificación lleva su propia etiqueta ({@link #representacion}).
+ */
+public final class ETags {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final List<String> SUFIJOS = List.of("-smile", "-cbor");
+
+    private ETags() {
+    }
+
+    public static String producto(Long version, Long vendedorVersion) {
+        return "\"" + version + "." + vendedorVersion + "\"";
+    }
+
+    public static String producto(ProductoDTO producto) {
+        return producto(producto.version(), producto.vendedorVersion());
+    }
+
+    public static String vendedor(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String vendedor(VendedorDTO vendedor) {
+        return vendedor(vendedor.version());
+    }
+
+    // Las variantes de imagen no cambian nunca: el ID de contenido y el tamaño bastan
+    public static String imagen(String id, int tamano) {
+        return "\"" + id + "-" + tamano + "\"";
+    }
+
+    /**
+     * Etiqueta de la representación en {@code tipo}: JSON usa la etiqueta tal cual y Smile y CBOR le
+     * añaden su sufijo dentro de las comillas ({@code "3.1"} pasa a {@code "3.1-smile"}). Un sufijo de
+     * formato previo se sustituye.
+     */
+    public static String representacion(String etag, MediaType tipo) {
+        String base = sinFormato(etag);
+        String sufijo = "";
+        if (tipo != null && SMILE.equalsTypeAndSubtype(tipo)) {
+            sufijo = "-smile";
+        } else if (tipo != null && MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(tipo)) {
+            sufijo = "-cbor";
+        }
+        return sufijo.isEmpty() ? base : base.substring(0, base.length() - 1) + sufijo + "\"";
+    }
+
+    /**
+     * Comparación débil para {@code If-None-Match}: comprueba si alguna de las etiquetas de la
+     * cabecera coincide con {@code etag}. Admite {@code *}, listas separadas por comas y etiquetas
+     * débiles ({@code W/}).
+     */
+    public static boolean matches(String header, String etag) {
+        if (header == null || header.isBlank()) {
+            return false;
+        }
+        String buscado = stripWeak(etag);
+        for (String candidato : header.split(",")) {
+            String valor = candidato.strip();
+            if (valor.equals("*") || stripWeak(valor).equals(buscado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Comparación fuerte para {@code If-Match} (RFC 9110, 13.1.1): una etiqueta débil nunca
+     * coincide, así que no basta para autorizar una escritura condicional. {@code etag} es la
+     * etiqueta de la versión; la de cualquiera de sus codificaciones vale igual, porque un cliente
+     * Smile escribe sobre la misma versión que uno JSON.
+     */
+    public static boolean matchesStrong(String header, String etag) {
+        if (header == null || header.isBlank() || etag.startsWith("W/")) {
+            return false;
+        }
+        for (String candidato : header.split(",")) {
+            String valor = candidato.strip();
+            if (valor.equals("*") || (!valor.startsWith("W/") && sinFormato(valor).equals(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sinFormato(String etag) {
+        for (String sufijo : SUFIJOS) {
+            if (etag.endsWith(sufijo + "\"")) {
+                return etag.substring(0, etag.length() - sufijo.length() - 1) + "\"";
+            }
+        }
+        return etag;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
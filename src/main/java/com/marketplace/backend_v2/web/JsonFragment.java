@@ -0,0 +1,173 @@
+package com.marketplace.backend_v2.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Un valor JSON ya serializado en UTF-8. Al escribirlo dentro de otra respuesta, el generador de
+ * Jackson copia los bytes tal cual a su buffer de salida, sin recorrer el objeto ni formatear
+ * números o fechas. Con formatos no JSON (Smile, CBOR) se serializa el objeto de origen si se indicó
+ * con {@link #conOrigen}; si no, se vuelve a leer el fragmento y se copia evento a evento.
+ */
+public final class JsonFragment implements JsonSerializable, SerializableString {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final byte[] utf8;
+    private final Object origen;
+
+    public JsonFragment(byte[] utf8) {
+        this(utf8, null);
+    }
+
+    private JsonFragment(byte[] utf8, Object origen) {
+        this.utf8 = utf8;
+        this.origen = origen;
+    }
+
+    /**
+     * El mismo fragmento junto al objeto del que se serializó. No copia los bytes; el objeto solo se
+     * usa cuando la respuesta no es JSON.
+     */
+    public JsonFragment conOrigen(Object origen) {
+        return new JsonFragment(utf8, origen);
+    }
+
+    public int size() {
+        return utf8.length;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (gen instanceof JsonGeneratorImpl) {
+            gen.writeRawValue(this);
+            return;
+        }
+        if (origen != null) {
+            serializers.defaultSerializeValue(origen, gen);
+            return;
+        }
+        try (JsonParser parser = JSON.createParser(utf8)) {
+            while (parser.nextToken() != null) {
+                gen.copyCurrentEventExact(parser);
+            }
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String getValue() {
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+        return utf8;
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+        if (offset + utf8.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+        return utf8.length;
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+        String value = getValue();
+        if (offset + value.length() > buffer.length) {
+            return -1;
+        }
+        value.getChars(0, value.length(), buffer, offset);
+        return value.length();
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(utf8);
+        return utf8.length;
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) {
+        if (buffer.remaining() < utf8.length) {
+            return -1;
+        }
+        buffer.put(utf8);
+        return utf8.length;
+    }
+
+    // Entrecomillado: el texto del fragmento como contenido de una cadena JSON, escapado igual que
+    // lo haría SerializedString. Jackson no lo usa al escribir el fragmento como valor
+
+    @Override
+    public char[] asQuotedChars() {
+        return JsonStringEncoder.getInstance().quoteAsString(getValue());
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+        return JsonStringEncoder.getInstance().quoteAsUTF8(getValue());
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+        byte[] quoted = asQuotedUTF8();
+        if (offset + quoted.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(quoted, 0, buffer, offset, quoted.length);
+        return quoted.length;
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+        char[] quoted = asQuotedChars();
+        if (offset + quoted.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(quoted, 0, buffer, offset, quoted.length);
+        return quoted.length;
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+        byte[] quoted = asQuotedUTF8();
+        out.write(quoted);
+        return quoted.length;
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) {
+        byte[] quoted = asQuotedUTF8();
+        if (buffer.remaining() < quoted.length) {
+            return -1;
+        }
+        buffer.put(quoted);
+        return quoted.length;
+    }
+}
@@ -0,0 +1,93 @@
+package com.marketplace.backend_v2.web;
+
+import com.marketplace.backend_v2.datasource.ReadRouting;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * ETag de la representación que va a recibir la petición en curso. El controlador lo necesita
+ * antes de que Spring elija conversor, para responder 304 sin cargar nada, así que el formato se
+ * negocia aquí con las mismas reglas: tipos de {@code Accept} compatibles con JSON, Smile o CBOR,
+ * el más específico primero. {@link VaryAcceptAdvice} vuelve a ajustar la cabecera con el formato
+ * que se eligió de verdad.
+ */
+@Component
+public class NegotiatedETags {
+
+    // En el orden de los conversores: ante un Accept genérico gana JSON
+    private static final List<MediaType> PRODUCIBLES =
+            List.of(MediaType.APPLICATION_JSON, ETags.SMILE, MediaType.APPLICATION_CBOR);
+
+    // Solo existe con Spring MVC: en contextos sin servidor web (CatalogSeeder) no hay petición que negociar
+    private final ObjectProvider<ContentNegotiationManager> contentNegotiationManager;
+
+    public NegotiatedETags(@Qualifier("mvcContentNegotiationManager")
+                           ObjectProvider<ContentNegotiationManager> contentNegotiationManager) {
+        this.contentNegotiationManager = contentNegotiationManager;
+    }
+
+    public String of(String etag) {
+        return ETags.representacion(etag, formato());
+    }
+
+    /**
+     * Listado etiquetado con la versión en memoria de su colección ({@code CatalogVersion}), tomada
+     * antes de consultar: si coincide con {@code If-None-Match} se responde 304 sin cargar nada. Lo
+     * leído de una réplica retrasada puede ser anterior a esa versión, y con su ETag el cliente
+     * recibiría 304 sobre esos datos hasta la siguiente escritura, así que se sirve sin él.
+     */
+    public <T> ResponseEntity<T> listado(String version, String ifNoneMatch, Supplier<T> consulta) {
+        String etag = of(version);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        T body;
+        boolean replica;
+        try (ReadRouting.Origen origen = ReadRouting.origen()) {
+            body = consulta.get();
+            replica = origen.isReplica();
+        }
+        return replica ? ResponseEntity.ok(body) : ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    private MediaType formato() {
+        ContentNegotiationManager manager = contentNegotiationManager.getIfAvailable();
+        if (manager == null || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> aceptados;
+        try {
+            aceptados = manager.resolveMediaTypes(new ServletWebRequest(atributos.getRequest()));
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> compatibles = new ArrayList<>();
+        for (MediaType aceptado : aceptados) {
+            for (MediaType producible : PRODUCIBLES) {
+                if (aceptado.isCompatibleWith(producible)) {
+                    MediaType conCalidad = producible.copyQualityValue(aceptado);
+                    compatibles.add(aceptado.isLessSpecific(conCalidad) ? conCalidad : aceptado);
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatibles);
+        return compatibles.stream()
+                .filter(MediaType::isConcrete)
+                .findFirst()
+                .orElse(MediaType.APPLICATION_JSON);
+    }
+}
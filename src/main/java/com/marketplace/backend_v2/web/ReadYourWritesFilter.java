@@ -0,0 +1,81 @@
+package com.marketplace.backend_v2.web;
+
+import com.marketplace.backend_v2.config.ReplicaProperties;
+import com.marketplace.backend_v2.datasource.ReadRouting;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Lectura de las propias escrituras con réplica: una petición que escribe (cualquier método que no
+ * sea GET, HEAD, OPTIONS o TRACE) deja una cookie con el instante hasta el que ese cliente lee del
+ * primario, {@code marketplace.datasource.replica.stickiness} después. La cookie se emite antes de
+ * ejecutar la petición, cuando la respuesta aún no se ha enviado; si la escritura falla, el cliente
+ * solo lee del primario un rato de más.
+ */
+@Component
+@ConditionalOnProperty(prefix = "marketplace.datasource.replica", name = "url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String COOKIE = "primario_hasta";
+    private static final Set<String> LECTURAS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name(), HttpMethod.TRACE.name());
+
+    private final Duration stickiness;
+
+    public ReadYourWritesFilter(ReplicaProperties properties) {
+        this.stickiness = properties.stickiness();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long ahora = System.currentTimeMillis();
+        boolean escritura = !LECTURAS.contains(request.getMethod());
+        if (escritura) {
+            ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(ahora + stickiness.toMillis()))
+                    .path("/")
+                    .maxAge(stickiness)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        if (!escritura && primarioHasta(request) <= ahora) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (ReadRouting.Scope primario = ReadRouting.primario()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private long primarioHasta(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
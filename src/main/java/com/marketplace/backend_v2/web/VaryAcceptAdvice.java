@@ -0,0 +1,41 @@
+package com.marketplace.backend_v2.web;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Las respuestas escritas con Jackson pueden ser JSON, Smile o CBOR según {@code Accept}.
+ * {@code Vary: Accept} evita que una caché intermedia sirva una codificación a un cliente que pidió
+ * otra, y el ETag se ajusta al formato elegido ({@link ETags#representacion}): con la misma etiqueta
+ * para todos, un {@code If-None-Match} o un {@code If-Range} podría validar bytes de otra codificación.
+ */
+@ControllerAdvice
+public class VaryAcceptAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        String etag = headers.getETag();
+        if (etag != null) {
+            headers.setETag(ETags.representacion(etag, selectedContentType));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,46 @@
+-- Esquema que generaba ddl-auto=update antes de cualquier cambio posterior (columnas de versión,
+-- visibilidad, agregados). Las bases de datos existentes se marcan en esta versión sin ejecutarla
+-- (spring.flyway.baseline-on-migrate) y reciben el resto con V2, que tolera que ddl-auto ya hubiera
+-- añadido parte. Los nombres de las restricciones son los que generaba Hibernate.
+
+CREATE TABLE vendedores (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre         VARCHAR(255) NOT NULL,
+    email          VARCHAR(255) NOT NULL,
+    telefono       VARCHAR(255),
+    direccion      VARCHAR(255),
+    ruc_dni        VARCHAR(255),
+    estado         BOOLEAN,
+    fecha_creacion TIMESTAMP(6),
+    CONSTRAINT vendedores_pkey PRIMARY KEY (id),
+    CONSTRAINT ukhn9tn3fd29i8bldhshurmr5v2 UNIQUE (email)
+);
+
+CREATE TABLE productos (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre         VARCHAR(255)   NOT NULL,
+    descripcion    VARCHAR(500),
+    precio         NUMERIC(10, 2) NOT NULL,
+    stock          INTEGER,
+    vendedor_id    BIGINT         NOT NULL,
+    categoria      VARCHAR(255),
+    imagen_url     VARCHAR(255),
+    fecha_creacion TIMESTAMP(6),
+    activo         BOOLEAN,
+    CONSTRAINT productos_pkey PRIMARY KEY (id),
+    CONSTRAINT fkit5eg112lpds7nwc66mhwrqrh FOREIGN KEY (vendedor_id) REFERENCES vendedores (id)
+);
+
+CREATE TABLE usuarios (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username       VARCHAR(255) NOT NULL,
+    password       VARCHAR(255) NOT NULL,
+    email          VARCHAR(255),
+    token          VARCHAR(255),
+    ultimo_login   TIMESTAMP(6),
+    activo         BOOLEAN,
+    fecha_creacion TIMESTAMP(6),
+    CONSTRAINT usuarios_pkey PRIMARY KEY (id),
+    CONSTRAINT ukm2dvbwfge291euvmk6vkkocao UNIQUE (username),
+    CONSTRAINT ukkfsp0s1tflm1cwlj8idhqsad0 UNIQUE (email)
+);
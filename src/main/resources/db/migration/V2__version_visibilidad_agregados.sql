@@ -0,0 +1,37 @@
+-- Todo lo añadido después del esquema inicial. Una base de datos marcada en V1 por el baseline pudo
+-- recibir ya parte con ddl-auto=update y schema-postgresql.sql, así que cada paso es idempotente.
+
+-- Tokens de sesión en base de datos: sustituidos por JWT sin estado
+ALTER TABLE usuarios DROP COLUMN IF EXISTS token;
+
+-- Bloqueo optimista y ETags (@Version); las filas existentes empiezan en 0
+ALTER TABLE vendedores ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0;
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0;
+
+-- activo AND vendedores.estado, mantenida por la aplicación (ver Producto)
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS visible BOOLEAN NOT NULL DEFAULT TRUE;
+
+-- Rellena la columna recién añadida y corrige filas desalineadas; no toca las que ya coinciden
+UPDATE productos p
+SET visible = COALESCE(p.activo AND v.estado, false)
+FROM vendedores v
+WHERE v.id = p.vendedor_id
+  AND p.visible IS DISTINCT FROM COALESCE(p.activo AND v.estado, false);
+
+-- Catálogo público (activos, con stock, hidratación de búsquedas): solo filas visibles, en orden de id
+CREATE INDEX IF NOT EXISTS idx_productos_visibles ON productos (id) WHERE visible;
+
+-- Agregados del catálogo (StatsService): se actualizan en la misma transacción que cada alta, cambio,
+-- baja o movimiento de stock, y StatsReconciler los recalcula periódicamente. Solo productos activos.
+-- Las tablas nacen vacías: la primera reconciliación, al arrancar, las rellena.
+CREATE TABLE IF NOT EXISTS vendedor_stats (
+    vendedor_id BIGINT PRIMARY KEY REFERENCES vendedores (id) ON DELETE CASCADE,
+    productos   BIGINT         NOT NULL DEFAULT 0,
+    unidades    BIGINT         NOT NULL DEFAULT 0,
+    valor       NUMERIC(19, 2) NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS categoria_stats (
+    categoria VARCHAR(255) PRIMARY KEY,
+    productos BIGINT NOT NULL DEFAULT 0
+);
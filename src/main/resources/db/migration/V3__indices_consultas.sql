@@ -0,0 +1,23 @@
+-- Índices para las consultas de los repositorios; QueryPlanTest comprueba con EXPLAIN que ninguna
+-- recorre la tabla entera. CONCURRENTLY para no bloquear escrituras en tablas ya pobladas: Flyway
+-- ejecuta esta migración fuera de transacción.
+--
+-- Si un CREATE INDEX CONCURRENTLY falla (cancelación, deadlock, violación de unicidad), PostgreSQL
+-- deja el índice marcado como INVALID y IF NOT EXISTS lo daría por creado. Antes de reintentar la
+-- migración hay que eliminarlo:
+--   SELECT indexrelid::regclass FROM pg_index WHERE NOT indisvalid;
+--   DROP INDEX CONCURRENTLY <índice>;
+
+-- Productos de un vendedor en orden de id (findDtoPageByVendedorId, findByVendedorId), cambio de
+-- visibilidad por vendedor y, al borrar un vendedor, sus lotes y la comprobación de la clave foránea
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_vendedor ON productos (vendedor_id, id);
+
+-- Páginas por categoría en orden de id (findDtoPageByCategoria, findByCategoria). activo/visible se
+-- filtran sobre las filas de la categoría: añadirlos a la clave no ahorra lecturas y partiría el orden
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_categoria ON productos (categoria, id);
+
+-- Sin índice sobre stock: los productos con stock se recorren por idx_productos_visibles filtrando
+-- stock > 0, y un índice que incluya stock impediría las actualizaciones HOT de cada reserva
+
+-- Vendedores activos por cursor (findByEstadoTrueAndIdGreaterThanOrderByIdAsc)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vendedores_activos ON vendedores (id) WHERE estado;
@@ -0,0 +1,13 @@
+-- Movimientos de stock pendientes de sumar a vendedor_stats. Cada reserva o liberación inserta aquí
+-- una fila en su propia transacción, en lugar de actualizar la fila del vendedor, que serializaba
+-- todas las reservas de productos de un mismo vendedor. StatsReconciler los pliega en vendedor_stats
+-- cada marketplace.stats.fold-interval; hasta entonces las lecturas los suman al contador.
+CREATE TABLE IF NOT EXISTS vendedor_stats_movimientos (
+    id          BIGSERIAL PRIMARY KEY,
+    vendedor_id BIGINT         NOT NULL REFERENCES vendedores (id) ON DELETE CASCADE,
+    unidades    BIGINT         NOT NULL,
+    valor       NUMERIC(19, 2) NOT NULL
+);
+
+-- Suma de lo pendiente de un vendedor (lecturas y reconciliación por rangos) y borrado en cascada
+CREATE INDEX IF NOT EXISTS idx_vendedor_stats_movimientos_vendedor ON vendedor_stats_movimientos (vendedor_id);
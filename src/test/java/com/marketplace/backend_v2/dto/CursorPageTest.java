@@ -0,0 +1,91 @@
+package com.marketplace.backend_v2.dto;
+
+import com.marketplace.backend_v2.exception.BadRequestException;
+import com.marketplace.backend_v2.handler.GlobalExceptionHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class CursorPageTest {
+
+    @Test
+    void cursorRoundTrips() {
+        for (long id : new long[]{1, 42, 1_000_000_007L, Long.MAX_VALUE}) {
+            String cursor = CursorPage.encodeCursor(id);
+
+            assertThat(cursor).doesNotContain("=", "+", "/");
+            assertThat(CursorPage.decodeCursor(cursor)).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertThat(CursorPage.decodeCursor(null)).isZero();
+        assertThat(CursorPage.decodeCursor("")).isZero();
+        assertThat(CursorPage.decodeCursor("  ")).isZero();
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        String noNumerico = base64("abc");
+        String desbordado = base64("99999999999999999999");
+        for (String cursor : List.of("%%%", "no es base64!", noNumerico, desbordado)) {
+            BadRequestException e = catchThrowableOfType(BadRequestException.class, () -> CursorPage.decodeCursor(cursor));
+
+            assertThat(e).as("cursor '%s'", cursor).isNotNull();
+            assertThat(new GlobalExceptionHandler().handleBadRequest(e).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Test
+    void extraRowMeansThereIsANextPage() {
+        CursorPage<Long> pagina = CursorPage.of(ids(1, 11), 10, Function.identity());
+
+        assertThat(pagina.items()).containsExactlyElementsOf(ids(1, 10));
+        assertThat(CursorPage.decodeCursor(pagina.nextCursor())).isEqualTo(10L);
+    }
+
+    @Test
+    void noExtraRowMeansLastPage() {
+        assertThat(CursorPage.of(ids(1, 10), 10, Function.identity()).nextCursor()).isNull();
+        assertThat(CursorPage.of(ids(1, 3), 10, Function.identity()).nextCursor()).isNull();
+        assertThat(CursorPage.of(List.<Long>of(), 10, Function.identity()))
+                .isEqualTo(new CursorPage<>(List.of(), null));
+    }
+
+    @Test
+    void nextCursorContinuesAfterTheLastItem() {
+        // Keyset sobre IDs con huecos: la siguiente página empieza justo después del último ID devuelto
+        List<Long> filas = List.of(3L, 8L, 21L, 40L, 41L, 90L, 120L);
+        List<Long> vistos = new ArrayList<>();
+        long after = CursorPage.decodeCursor(null);
+        String cursor;
+        do {
+            long desde = after;
+            List<Long> leidas = filas.stream().filter(id -> id > desde).limit(3 + 1).toList();
+            CursorPage<Long> pagina = CursorPage.of(leidas, 3, Function.identity());
+            vistos.addAll(pagina.items());
+            cursor = pagina.nextCursor();
+            after = CursorPage.decodeCursor(cursor);
+        } while (cursor != null);
+
+        assertThat(vistos).containsExactlyElementsOf(filas);
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Long> ids(long desde, long hasta) {
+        return LongStream.rangeClosed(desde, hasta).boxed().toList();
+    }
+}
@@ -0,0 +1,318 @@
+package com.marketplace.backend_v2.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.backend_v2.config.HibernateCacheConfig;
+import com.marketplace.backend_v2.config.HibernateCacheProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan de ejecución de cada consulta de los repositorios sobre PostgreSQL (la base de datos de
+ * application.properties, con las migraciones de Flyway). Se siembra un catálogo de tamaño
+ * realista, se ejecuta cada método capturando el SQL y los parámetros que envía Hibernate, y se
+ * pide a PostgreSQL el EXPLAIN de esa misma sentencia. Falla si algún plan recorre una tabla entera
+ * (Seq Scan). Todo ocurre en la transacción del test, que se revierte al terminar.
+ * <p>
+ * Cada método declarado en los repositorios tiene que estar en {@link #casos} o en
+ * {@link #RECORRIDOS_COMPLETOS}, así que un método nuevo sin plan revisado también hace fallar el test.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+
+    private static final int VENDEDORES = 2_000;
+    private static final int PRODUCTOS = 100_000;
+    private static final int USUARIOS = 10_000;
+
+    // Devuelven toda la tabla (o casi) por diseño: exportación, construcción del índice de búsqueda y
+    // listados completos; para ellos un recorrido secuencial es el plan correcto
+    private static final Set<String> RECORRIDOS_COMPLETOS = Set.of(
+            "streamAllDtos", "streamTextoActivos", "findByActivoTrue", "findByVendedorEstadoTrue",
+            "findProductosConStock", "findByEstadoTrue");
+
+    @TestConfiguration
+    @Import(HibernateCacheConfig.class)
+    @EnableConfigurationProperties(HibernateCacheProperties.class)
+    static class Config {
+
+        @Bean
+        static Captura captura() {
+            return new Captura();
+        }
+
+        @Bean
+        static BeanPostProcessor capturaDataSource(Captura captura) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CapturaDataSource(dataSource, captura) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private VendedorRepository vendedorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private Captura captura;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void ningunaConsultaRecorreUnaTablaEntera() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Semilla semilla = sembrar(jdbcTemplate);
+
+        Map<String, Runnable> casos = casos(semilla);
+        assertThat(metodosDeclarados())
+                .as("métodos de repositorio sin plan comprobado")
+                .allMatch(metodo -> casos.containsKey(metodo) || RECORRIDOS_COMPLETOS.contains(metodo));
+
+        Map<String, List<String>> recorridos = new LinkedHashMap<>();
+        casos.forEach((metodo, caso) -> {
+            List<Sentencia> sentencias = captura.durante(caso);
+            assertThat(sentencias).as("SQL de %s", metodo).isNotEmpty();
+            for (Sentencia sentencia : sentencias) {
+                List<String> tablas = seqScans(jdbcTemplate, sentencia);
+                if (!tablas.isEmpty()) {
+                    recorridos.put(metodo, tablas);
+                }
+            }
+        });
+        assertThat(recorridos).as("consultas con Seq Scan (método -> tablas)").isEmpty();
+    }
+
+    private Map<String, Runnable> casos(Semilla semilla) {
+        Map<String, Runnable> casos = new LinkedHashMap<>();
+        Long vendedorId = semilla.vendedorId();
+        Long productoId = semilla.productoId();
+        String categoria = "categoria-7";
+        Limit pagina = Limit.of(51);
+
+        casos.put("findByVendedorId", () -> productoRepository.findByVendedorId(vendedorId));
+        casos.put("findByCategoria", () -> productoRepository.findByCategoria(categoria));
+        casos.put("findByCategoriaAndVendedorActivo", () -> productoRepository.findByCategoriaAndVendedorActivo(categoria));
+        casos.put("findDtoById", () -> productoRepository.findDtoById(productoId));
+        casos.put("findDtoPage", () -> productoRepository.findDtoPage(productoId, pagina));
+        casos.put("findDtoPageByVendedorId", () -> productoRepository.findDtoPageByVendedorId(vendedorId, 0L, pagina));
+        casos.put("findDtoPageByCategoria", () -> productoRepository.findDtoPageByCategoria(categoria, 0L, pagina));
+        casos.put("findDtoPageActivos", () -> productoRepository.findDtoPageActivos(productoId, pagina));
+        casos.put("findDtoPageConStock", () -> productoRepository.findDtoPageConStock(productoId, pagina));
+        casos.put("findDtoActivosByIdIn", () -> productoRepository.findDtoActivosByIdIn(
+                List.of(productoId, productoId + 10, productoId + 20, productoId + 30)));
+        casos.put("updateVisibleByVendedorId", () -> productoRepository.updateVisibleByVendedorId(vendedorId, false));
+        casos.put("countByVendedorId", () -> productoRepository.countByVendedorId(vendedorId));
+        casos.put("findIdsByVendedorIdForUpdate",
+                () -> productoRepository.findIdsByVendedorIdForUpdate(vendedorId, Limit.of(1000)));
+        casos.put("reserveStock", () -> productoRepository.reserveStock(productoId, 1));
+        casos.put("releaseStock", () -> productoRepository.releaseStock(productoId, 1));
+
+        casos.put("existsByEmail", () -> vendedorRepository.existsByEmail("plan-500@test.local"));
+        casos.put("findByIdGreaterThanOrderByIdAsc", () -> vendedorRepository.findByIdGreaterThanOrderByIdAsc(vendedorId, pagina));
+        casos.put("findByEstadoTrueAndIdGreaterThanOrderByIdAsc",
+                () -> vendedorRepository.findByEstadoTrueAndIdGreaterThanOrderByIdAsc(vendedorId, pagina));
+        casos.put("findByIdForShare", () -> vendedorRepository.findByIdForShare(vendedorId));
+        casos.put("findByIdForUpdate", () -> vendedorRepository.findByIdForUpdate(vendedorId));
+        // Natural id: la caché de segundo nivel está vacía para este email, así que va a la base de datos
+        casos.put("findByEmail", () -> vendedorRepository.findByEmail("plan-501@test.local"));
+
+        casos.put("findByUsername", () -> usuarioRepository.findByUsername("plan-usuario-500"));
+        casos.put("existsByUsername", () -> usuarioRepository.existsByUsername("plan-usuario-500"));
+        // UsuarioRepository.findByEmail comparte nombre con el de vendedores; ambos se comprueban aquí
+        casos.put("findByEmail (usuarios)", () -> usuarioRepository.findByEmail("plan-usuario-500@test.local"));
+        casos.put("existsByEmail (usuarios)", () -> usuarioRepository.existsByEmail("plan-usuario-500@test.local"));
+        return casos;
+    }
+
+    private Set<String> metodosDeclarados() {
+        Set<String> metodos = new TreeSet<>();
+        Stream.of(ProductoRepository.class, VendedorRepository.class, VendedorRepositoryCustom.class, UsuarioRepository.class)
+                .flatMap(repositorio -> Arrays.stream(repositorio.getDeclaredMethods()))
+                .filter(metodo -> !metodo.isDefault() && !metodo.isSynthetic())
+                .forEach(metodo -> metodos.add(metodo.getName()));
+        return metodos;
+    }
+
+    private record Semilla(Long vendedorId, Long productoId) {}
+
+    private Semilla sembrar(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("""
+                INSERT INTO vendedores (nombre, email, estado, fecha_creacion, version)
+                SELECT 'Vendedor ' || i, 'plan-' || i || '@test.local', i % 10 <> 0, now(), 0
+                FROM generate_series(1, ?) i""", VENDEDORES);
+        // El vendedor de cada producto sale de su posición en la lista de vendedores sembrados
+        jdbcTemplate.update("""
+                WITH v AS (SELECT array_agg(id ORDER BY id) AS ids, array_agg(estado ORDER BY id) AS estados
+                           FROM vendedores WHERE email LIKE 'plan-%@test.local')
+                INSERT INTO productos (nombre, descripcion, precio, stock, vendedor_id, categoria, fecha_creacion,
+                                       activo, visible, version)
+                SELECT 'Producto ' || i, 'Descripción del producto ' || i, 1 + (i % 1000) / 10.0, i % 7,
+                       v.ids[1 + i % ?], 'categoria-' || (i % 50), now(),
+                       i % 20 <> 0, i % 20 <> 0 AND v.estados[1 + i % ?], 0
+                FROM generate_series(1, ?) i, v""", VENDEDORES, VENDEDORES, PRODUCTOS);
+        jdbcTemplate.update("""
+                INSERT INTO usuarios (username, password, email, activo, fecha_creacion)
+                SELECT 'plan-usuario-' || i, 'x', 'plan-usuario-' || i || '@test.local', true, now()
+                FROM generate_series(1, ?) i""", USUARIOS);
+        // ANALYZE dentro de la transacción cuenta las filas que ella misma ha insertado
+        jdbcTemplate.execute("ANALYZE vendedores, productos, usuarios");
+
+        Long vendedorId = jdbcTemplate.queryForObject(
+                "SELECT id FROM vendedores WHERE email = 'plan-1000@test.local'", Long.class);
+        Long productoId = jdbcTemplate.queryForObject(
+                "SELECT id FROM productos WHERE vendedor_id = ? ORDER BY id LIMIT 1", Long.class, vendedorId);
+        return new Semilla(vendedorId, productoId);
+    }
+
+    // EXPLAIN de la sentencia capturada con los mismos parámetros, en la misma conexión y transacción
+    private List<String> seqScans(JdbcTemplate jdbcTemplate, Sentencia sentencia) {
+        String plan = jdbcTemplate.query(connection -> {
+            PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sentencia.sql());
+            for (Parametro parametro : sentencia.parametros()) {
+                parametro.aplicar(explain);
+            }
+            return explain;
+        }, rs -> rs.next() ? rs.getString(1) : null);
+        List<String> tablas = new ArrayList<>();
+        try {
+            recorrer(objectMapper.readTree(plan).get(0).get("Plan"), tablas);
+        } catch (Exception e) {
+            throw new IllegalStateException("Plan no válido para " + sentencia.sql(), e);
+        }
+        return tablas;
+    }
+
+    private void recorrer(JsonNode nodo, List<String> tablas) {
+        if ("Seq Scan".equals(nodo.path("Node Type").asText())) {
+            tablas.add(nodo.path("Relation Name").asText());
+        }
+        nodo.path("Plans").forEach(hijo -> recorrer(hijo, tablas));
+    }
+
+    private record Sentencia(String sql, List<Parametro> parametros) {}
+
+    // Una llamada setXxx(índice, valor, ...) sobre el PreparedStatement, para repetirla en el EXPLAIN
+    private record Parametro(Method metodo, Object[] argumentos) {
+        void aplicar(PreparedStatement statement) {
+            try {
+                metodo.invoke(statement, argumentos);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    static final class Captura {
+        private List<Sentencia> sentencias;
+
+        synchronized List<Sentencia> durante(Runnable caso) {
+            sentencias = new ArrayList<>();
+            try {
+                caso.run();
+                return sentencias;
+            } finally {
+                sentencias = null;
+            }
+        }
+
+        synchronized void registrar(Sentencia sentencia) {
+            if (sentencias != null) {
+                sentencias.add(sentencia);
+            }
+        }
+    }
+
+    // Envuelve conexiones y PreparedStatement para anotar el SQL y los parámetros que se ejecutan
+    static final class CapturaDataSource extends DelegatingDataSource {
+        private final Captura captura;
+
+        CapturaDataSource(DataSource dataSource, Captura captura) {
+            super(dataSource);
+            this.captura = captura;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return envolver(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return envolver(super.getConnection(username, password));
+        }
+
+        private Connection envolver(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object resultado = invocar(connection, method, args);
+                        if (resultado instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                            return envolver(statement, (String) args[0]);
+                        }
+                        return resultado;
+                    });
+        }
+
+        private PreparedStatement envolver(PreparedStatement statement, String sql) {
+            List<Parametro> parametros = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        String nombre = method.getName();
+                        if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                            parametros.add(new Parametro(method, args.clone()));
+                        } else if (nombre.startsWith("execute") && (args == null || args.length == 0)) {
+                            captura.registrar(new Sentencia(sql, List.copyOf(parametros)));
+                        } else if (nombre.equals("clearParameters")) {
+                            parametros.clear();
+                        }
+                        return invocar(statement, method, args);
+                    });
+        }
+
+        private static Object invocar(Object destino, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(destino, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.marketplace.backend_v2.repository;
+
+import com.marketplace.backend_v2.config.HibernateCacheConfig;
+import com.marketplace.backend_v2.config.HibernateCacheProperties;
+import com.marketplace.backend_v2.model.Producto;
+import com.marketplace.backend_v2.model.Vendedor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cada llamada al repositorio abre su propia transacción y su propio EntityManager, así que una
+ * segunda lectura sin SQL solo puede salir de la caché de segundo nivel. Sin Flyway: las
+ * migraciones usan sintaxis de PostgreSQL y en H2 basta el esquema que genera Hibernate.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @TestConfiguration
+    @Import(HibernateCacheConfig.class)
+    @EnableConfigurationProperties(HibernateCacheProperties.class)
+    static class Config {
+    }
+
+    @Autowired
+    private VendedorRepository vendedorRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Vendedor vendedor;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        vendedor = vendedorRepository.save(Vendedor.builder()
+                .nombre("Ana")
+                .email("ana@example.com")
+                .build());
+        producto = productoRepository.save(Producto.builder()
+                .nombre("Libro")
+                .precio(new BigDecimal("10.00"))
+                .vendedor(vendedor)
+                .build());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAllInBatch();
+        vendedorRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void vendedorByIdIsServedFromCache() {
+        assertThat(sqlStatements(() -> vendedorRepository.findById(vendedor.getId()))).isPositive();
+        assertThat(sqlStatements(() -> vendedorRepository.findById(vendedor.getId()))).isZero();
+    }
+
+    @Test
+    void vendedorByEmailUsesNaturalIdCache() {
+        assertThat(sqlStatements(() -> vendedorRepository.findByEmail("ana@example.com"))).isPositive();
+        assertThat(sqlStatements(() -> assertThat(vendedorRepository.findByEmail("ana@example.com"))
+                .get().extracting(Vendedor::getId).isEqualTo(vendedor.getId()))).isZero();
+    }
+
+    @Test
+    void vendedoresActivosQueryIsCached() {
+        assertThat(sqlStatements(() -> vendedorRepository.findByEstadoTrue())).isPositive();
+        assertThat(sqlStatements(() -> assertThat(vendedorRepository.findByEstadoTrue()).hasSize(1))).isZero();
+    }
+
+    @Test
+    void vendedoresActivosQueryIsInvalidatedByWrites() {
+        vendedorRepository.findByEstadoTrue();
+        vendedorRepository.save(Vendedor.builder().nombre("Beto").email("beto@example.com").build());
+
+        assertThat(sqlStatements(() -> assertThat(vendedorRepository.findByEstadoTrue()).hasSize(2))).isPositive();
+    }
+
+    @Test
+    void productoByIdIsServedFromCache() {
+        assertThat(sqlStatements(() -> productoRepository.findById(producto.getId()))).isPositive();
+        assertThat(sqlStatements(() -> productoRepository.findById(producto.getId()))).isZero();
+    }
+
+    @Test
+    void stockUpdatesKeepOtherProductosCached() {
+        Producto otro = productoRepository.save(Producto.builder()
+                .nombre("Cuaderno")
+                .precio(new BigDecimal("3.00"))
+                .stock(10)
+                .vendedor(vendedor)
+                .build());
+        productoRepository.findById(producto.getId());
+        productoRepository.findById(otro.getId());
+        vendedorRepository.findById(vendedor.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productoRepository.reserveStock(otro.getId(), 2);
+            productoRepository.releaseStock(otro.getId(), 1);
+        });
+
+        // El producto tocado lo desaloja StockService; los demás siguen en la región
+        assertThat(sqlStatements(() -> productoRepository.findById(producto.getId()))).isZero();
+        assertThat(sqlStatements(() -> vendedorRepository.findById(vendedor.getId()))).isZero();
+    }
+
+    private long sqlStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
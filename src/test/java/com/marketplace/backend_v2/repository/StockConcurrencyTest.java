@@ -0,0 +1,151 @@
+package com.marketplace.backend_v2.repository;
+
+import com.marketplace.backend_v2.config.HibernateCacheConfig;
+import com.marketplace.backend_v2.config.HibernateCacheProperties;
+import com.marketplace.backend_v2.model.Producto;
+import com.marketplace.backend_v2.model.Vendedor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservas concurrentes sobre PostgreSQL: cada hilo reserva en su propia transacción y el UPDATE
+ * condicional es lo único que impide vender más unidades de las que hay. Los datos se confirman de
+ * verdad, así que el test borra lo que ha creado.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockConcurrencyTest {
+
+    private static final int STOCK = 50;
+    private static final int HILOS = 16;
+    private static final int RESERVAS_POR_HILO = 10;
+
+    @TestConfiguration
+    @Import(HibernateCacheConfig.class)
+    @EnableConfigurationProperties(HibernateCacheProperties.class)
+    static class Config {
+    }
+
+    @Autowired
+    private VendedorRepository vendedorRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Vendedor vendedor;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        vendedor = vendedorRepository.save(Vendedor.builder()
+                .nombre("Stock concurrente")
+                .email("stock-" + System.nanoTime() + "@example.com")
+                .build());
+        producto = productoRepository.save(Producto.builder()
+                .nombre("Entrada")
+                .precio(new BigDecimal("10.00"))
+                .stock(STOCK)
+                .vendedor(vendedor)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAllByIdInBatch(List.of(producto.getId()));
+        vendedorRepository.deleteAllByIdInBatch(List.of(vendedor.getId()));
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        CountDownLatch salida = new CountDownLatch(1);
+        Callable<Integer> cliente = () -> {
+            salida.await();
+            int reservadas = 0;
+            for (int i = 0; i < RESERVAS_POR_HILO; i++) {
+                reservadas += transactionTemplate.execute(status -> productoRepository.reserveStock(producto.getId(), 1));
+            }
+            return reservadas;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<Integer>> resultados = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                resultados.add(executor.submit(cliente));
+            }
+            salida.countDown();
+            int reservadas = 0;
+            for (Future<Integer> resultado : resultados) {
+                reservadas += resultado.get();
+            }
+
+            assertThat(reservadas).isEqualTo(STOCK);
+            assertThat(stockEnBaseDeDatos()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void releaseRequiresAnActiveProduct() {
+        jdbcTemplate.update("UPDATE productos SET activo = false WHERE id = ?", producto.getId());
+
+        assertThat(release(producto.getId())).isZero();
+        assertThat(release(-1L)).isZero();
+        assertThat(stockEnBaseDeDatos()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void reserveRequiresAVisibleProduct() {
+        // Producto activo de un vendedor desactivado: oculto en el catálogo
+        jdbcTemplate.update("UPDATE productos SET visible = false WHERE id = ?", producto.getId());
+
+        assertThat(reserve(producto.getId())).isZero();
+        assertThat(release(producto.getId())).isOne();
+        assertThat(stockEnBaseDeDatos()).isEqualTo(STOCK + 5);
+    }
+
+    private int reserve(Long productoId) {
+        return transactionTemplate.execute(status -> productoRepository.reserveStock(productoId, 5));
+    }
+
+    private int release(Long productoId) {
+        return transactionTemplate.execute(status -> productoRepository.releaseStock(productoId, 5));
+    }
+
+    private int stockEnBaseDeDatos() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM productos WHERE id = ?", Integer.class, producto.getId());
+    }
+}
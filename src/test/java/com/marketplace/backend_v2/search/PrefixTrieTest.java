@@ -0,0 +1,87 @@
+package com.marketplace.backend_v2.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las listas precalculadas de cada nodo frente a un recorrido de todos los términos, después de
+ * altas y bajas aleatorias. Los términos comparten prefijos y frecuencias para que haya empates y
+ * listas llenas que rehacer.
+ */
+class PrefixTrieTest {
+
+    private static final int MAX_MEJORES = 8;
+    private static final String[] SILABAS = {"ca", "co", "ma", "me", "sa", "ta"};
+    private static final int[] LIMITES = {1, 3, MAX_MEJORES, MAX_MEJORES + 5, 100};
+
+    private final SplittableRandom random = new SplittableRandom(11);
+    private final PrefixTrie trie = new PrefixTrie(MAX_MEJORES);
+    private final Map<String, Integer> frecuencias = new HashMap<>();
+
+    @Test
+    void completeMatchesBruteForceAfterAddsAndRemoves() {
+        for (int ronda = 0; ronda < 40; ronda++) {
+            for (int i = 0; i < 200; i++) {
+                String termino = termino();
+                // Dos altas por cada baja: el trie crece, pero también se vacían términos y ramas
+                if (random.nextInt(3) == 0) {
+                    trie.remove(termino);
+                    frecuencias.computeIfPresent(termino, (t, frecuencia) -> frecuencia > 1 ? frecuencia - 1 : null);
+                } else {
+                    trie.add(termino);
+                    frecuencias.merge(termino, 1, Integer::sum);
+                }
+            }
+            for (String prefijo : List.of("", "c", "ca", "cama", "m", "me", "sat", "x")) {
+                for (int limite : LIMITES) {
+                    assertThat(trie.complete(prefijo, limite))
+                            .as("prefijo '%s', límite %d, ronda %d", prefijo, limite, ronda)
+                            .isEqualTo(esperado(prefijo, limite));
+                }
+            }
+        }
+    }
+
+    @Test
+    void removingEveryTermEmptiesTheTrie() {
+        for (int i = 0; i < 500; i++) {
+            String termino = termino();
+            trie.add(termino);
+            frecuencias.merge(termino, 1, Integer::sum);
+        }
+        frecuencias.forEach((termino, frecuencia) -> {
+            for (int i = 0; i < frecuencia; i++) {
+                trie.remove(termino);
+            }
+        });
+
+        assertThat(trie.complete("", 100)).isEmpty();
+        assertThat(trie.complete("ca", 3)).isEmpty();
+    }
+
+    private String termino() {
+        StringBuilder termino = new StringBuilder();
+        int silabas = 1 + random.nextInt(3);
+        for (int i = 0; i < silabas; i++) {
+            termino.append(SILABAS[random.nextInt(SILABAS.length)]);
+        }
+        return termino.toString();
+    }
+
+    private List<String> esperado(String prefijo, int limite) {
+        return frecuencias.entrySet().stream()
+                .filter(termino -> termino.getKey().startsWith(prefijo))
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limite)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
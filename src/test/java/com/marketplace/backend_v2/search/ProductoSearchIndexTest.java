@@ -0,0 +1,268 @@
+package com.marketplace.backend_v2.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El ranking con poda MaxScore frente a BM25 calculado producto a producto sobre los textos que
+ * siguen indexados, y las sugerencias frente a las frecuencias documentales contadas a mano.
+ * Con puntuaciones empatadas el orden entre productos no está definido, así que se comparan las
+ * puntuaciones de los resultados y no sus IDs.
+ */
+class ProductoSearchIndexTest {
+
+    private static final String[] SILABAS = {"ca", "co", "ma", "me", "mi", "sa", "se", "ta", "ción", "lla"};
+    private static final String[] PALABRAS_VACIAS = {"de", "la", "con", "para"};
+    private static final int[] LIMITES = {1, 5, 20, 50};
+    private static final double TOLERANCIA = 1e-9;
+
+    private final SplittableRandom random = new SplittableRandom(3);
+    private final String[] vocabulario = vocabulario(400);
+    private final ProductoSearchIndex index = new ProductoSearchIndex(null, null);
+    // Lo último indexado de cada producto, tal como lo vería una reconstrucción del índice
+    private final Map<Long, ProductoTexto> indexados = new HashMap<>();
+
+    @Test
+    void prunedRankingMatchesExhaustiveScoring() {
+        for (long id = 1; id <= 2_000; id++) {
+            indexar(producto(id));
+        }
+
+        comprobarConsultas(300);
+    }
+
+    @Test
+    void reindexAndRemoveKeepRankingAndSuggestionsConsistent() {
+        long siguienteId = 1;
+        for (; siguienteId <= 1_000; siguienteId++) {
+            indexar(producto(siguienteId));
+        }
+        for (int ronda = 0; ronda < 10; ronda++) {
+            List<Long> ids = new ArrayList<>(indexados.keySet());
+            for (int i = 0; i < 150; i++) {
+                Long id = ids.get(random.nextInt(ids.size()));
+                if (random.nextBoolean()) {
+                    indexar(producto(id));
+                } else {
+                    index.removeAfterCommit(id);
+                    indexados.remove(id);
+                }
+            }
+            for (int i = 0; i < 50; i++) {
+                indexar(producto(siguienteId++));
+            }
+
+            assertThat(index.size()).isEqualTo(documentos().size());
+            comprobarConsultas(60);
+            comprobarSugerencias();
+        }
+    }
+
+    @Test
+    void removingEveryProductEmptiesTheIndex() {
+        for (long id = 1; id <= 300; id++) {
+            indexar(producto(id));
+        }
+        for (long id = 1; id <= 300; id++) {
+            index.removeAfterCommit(id);
+        }
+
+        assertThat(index.size()).isZero();
+        assertThat(index.search(vocabulario[0], 10)).isEmpty();
+        assertThat(index.suggest("c", 10)).isEmpty();
+    }
+
+    @Test
+    void suggestNormalizesThePrefixLikeIndexedText() {
+        indexar(new ProductoTexto(1L, "Camión de juguete", null, "Decoración"));
+        indexar(new ProductoTexto(2L, "Camioneta", null, null));
+
+        assertThat(index.suggest("CAMIÓ", 10)).containsExactly("camion", "camioneta");
+        assertThat(index.suggest("  camion-", 10)).containsExactly("camion", "camioneta");
+        assertThat(index.suggest("mesa jug", 10)).containsExactly("juguete");
+        assertThat(index.suggest("de", 10)).containsExactly("decoracion");
+        assertThat(index.suggest(" -, ", 10)).isEmpty();
+    }
+
+    private void indexar(ProductoTexto producto) {
+        // Sin transacción activa el índice aplica el cambio al momento
+        index.indexAfterCommit(producto);
+        indexados.put(producto.id(), producto);
+    }
+
+    private void comprobarConsultas(int consultas) {
+        Map<Long, Map<String, Integer>> documentos = documentos();
+        for (int i = 0; i < consultas; i++) {
+            String consulta = consulta();
+            for (int limite : LIMITES) {
+                List<Long> resultado = index.search(consulta, limite);
+                Map<Long, Double> puntuaciones = puntuar(documentos, consulta);
+
+                assertThat(new HashSet<>(resultado)).as("'%s': IDs repetidos", consulta).hasSameSizeAs(resultado);
+                assertThat(puntuaciones.keySet()).as("'%s': producto sin coincidencias", consulta).containsAll(resultado);
+                assertThat(resultado.stream().map(puntuaciones::get).toList())
+                        .as("consulta '%s', límite %d", consulta, limite)
+                        .usingElementComparator((a, b) -> Math.abs(a - b) < TOLERANCIA ? 0 : Double.compare(a, b))
+                        .containsExactlyElementsOf(puntuaciones.values().stream()
+                                .sorted(Comparator.reverseOrder())
+                                .limit(limite)
+                                .toList());
+            }
+        }
+    }
+
+    private void comprobarSugerencias() {
+        Map<String, Integer> frecuencias = frecuenciasDocumentales(documentos());
+        for (String prefijo : List.of("c", "ca", "cion", "me", "sal", "ta")) {
+            assertThat(index.suggest(prefijo, 10))
+                    .as("prefijo '%s'", prefijo)
+                    .isEqualTo(masFrecuentes(frecuencias, prefijo, 10));
+        }
+    }
+
+    // Frecuencia ponderada de cada término por producto, con la misma normalización que el índice
+    private Map<Long, Map<String, Integer>> documentos() {
+        Map<Long, Map<String, Integer>> documentos = new HashMap<>();
+        indexados.forEach((id, producto) -> {
+            Map<String, Integer> frecuencias = new HashMap<>();
+            sumar(frecuencias, producto.nombre(), ProductoSearchIndex.PESO_NOMBRE);
+            sumar(frecuencias, producto.categoria(), ProductoSearchIndex.PESO_CATEGORIA);
+            sumar(frecuencias, producto.descripcion(), ProductoSearchIndex.PESO_DESCRIPCION);
+            if (!frecuencias.isEmpty()) {
+                documentos.put(id, frecuencias);
+            }
+        });
+        return documentos;
+    }
+
+    private void sumar(Map<String, Integer> frecuencias, String texto, int peso) {
+        TextNormalizer.tokenize(texto).forEach(token -> frecuencias.merge(token, peso, Integer::sum));
+    }
+
+    private Map<String, Integer> frecuenciasDocumentales(Map<Long, Map<String, Integer>> documentos) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        documentos.values().forEach(documento -> documento.keySet().forEach(termino -> frecuencias.merge(termino, 1, Integer::sum)));
+        return frecuencias;
+    }
+
+    private List<String> masFrecuentes(Map<String, Integer> frecuencias, String prefijo, int limite) {
+        return frecuencias.entrySet().stream()
+                .filter(termino -> termino.getKey().startsWith(prefijo))
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limite)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // BM25 de cada producto con alguna coincidencia, recorriendo todos los productos
+    private Map<Long, Double> puntuar(Map<Long, Map<String, Integer>> documentos, String consulta) {
+        Map<String, Integer> frecuencias = frecuenciasDocumentales(documentos);
+        List<String> tokens = TextNormalizer.tokenize(consulta);
+        Map<String, Double> terminos = new LinkedHashMap<>();
+        for (String token : tokens) {
+            terminos.put(token, 1.0);
+        }
+        if (!tokens.isEmpty() && !Character.isWhitespace(consulta.charAt(consulta.length() - 1))) {
+            masFrecuentes(frecuencias, tokens.getLast(), ProductoSearchIndex.MAX_EXPANSIONES_PREFIJO)
+                    .forEach(expansion -> terminos.putIfAbsent(expansion, 0.8));
+        }
+
+        int totalDocumentos = documentos.size();
+        double longitudMedia = documentos.values().stream()
+                .mapToInt(documento -> documento.values().stream().mapToInt(Integer::intValue).sum())
+                .average()
+                .orElse(1.0);
+        Map<Long, Double> puntuaciones = new HashMap<>();
+        documentos.forEach((id, documento) -> {
+            int longitud = documento.values().stream().mapToInt(Integer::intValue).sum();
+            double puntuacion = 0;
+            boolean coincide = false;
+            for (Map.Entry<String, Double> termino : terminos.entrySet()) {
+                Integer tf = documento.get(termino.getKey());
+                if (tf == null) {
+                    continue;
+                }
+                int df = frecuencias.get(termino.getKey());
+                double idf = Math.log(1 + (totalDocumentos - df + 0.5) / (df + 0.5));
+                double normalizacion = ProductoSearchIndex.K1
+                        * (1 - ProductoSearchIndex.B + ProductoSearchIndex.B * longitud / longitudMedia);
+                puntuacion += termino.getValue() * idf * tf * (ProductoSearchIndex.K1 + 1) / (tf + normalizacion);
+                coincide = true;
+            }
+            if (coincide) {
+                puntuaciones.put(id, puntuacion);
+            }
+        });
+        return puntuaciones;
+    }
+
+    /*
+     * Términos de 1-3 sílabas elegidos con sesgo hacia los primeros del vocabulario, para que unos
+     * pocos aparezcan en casi todo el catálogo; con mayúsculas, tildes y palabras vacías que la
+     * normalización debe absorber, y algún producto sin ningún término indexable.
+     */
+    private ProductoTexto producto(long id) {
+        if (random.nextInt(50) == 0) {
+            return new ProductoTexto(id, "de la", null, null);
+        }
+        return new ProductoTexto(id, frase(1 + random.nextInt(3)), frase(random.nextInt(8)),
+                random.nextInt(4) == 0 ? null : termino());
+    }
+
+    private String frase(int terminos) {
+        StringBuilder frase = new StringBuilder();
+        for (int i = 0; i < terminos; i++) {
+            String termino = termino();
+            frase.append(random.nextInt(5) == 0 ? termino.toUpperCase() : termino).append(' ');
+            if (random.nextInt(4) == 0) {
+                frase.append(PALABRAS_VACIAS[random.nextInt(PALABRAS_VACIAS.length)]).append(' ');
+            }
+        }
+        return frase.toString();
+    }
+
+    private String termino() {
+        double u = random.nextDouble();
+        return vocabulario[(int) (u * u * u * vocabulario.length)];
+    }
+
+    private String consulta() {
+        StringBuilder consulta = new StringBuilder();
+        int exactos = random.nextInt(3);
+        for (int i = 0; i < exactos; i++) {
+            consulta.append(termino()).append(' ');
+        }
+        if (exactos == 0 || random.nextBoolean()) {
+            String prefijo = TextNormalizer.fold(termino());
+            consulta.append(prefijo, 0, Math.min(prefijo.length(), 1 + random.nextInt(3)));
+        }
+        return consulta.toString();
+    }
+
+    private String[] vocabulario(int tamano) {
+        List<String> terminos = new ArrayList<>();
+        while (terminos.size() < tamano) {
+            StringBuilder termino = new StringBuilder();
+            int silabas = 1 + random.nextInt(3);
+            for (int i = 0; i < silabas; i++) {
+                termino.append(SILABAS[random.nextInt(SILABAS.length)]);
+            }
+            String candidato = termino.toString();
+            if (!terminos.contains(candidato) && TextNormalizer.tokenize(candidato).size() == 1) {
+                terminos.add(candidato);
+            }
+        }
+        return terminos.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,132 @@
+package com.marketplace.backend_v2.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Comparación débil ({@code If-None-Match}) y fuerte ({@code If-Match}) de las cabeceras, sufijos
+ * de formato y la etiqueta que {@link NegotiatedETags} elige según {@code Accept}.
+ */
+class ETagsTest {
+
+    private static final String VERSION = ETags.producto(3L, 1L);
+
+    @AfterEach
+    void limpiarPeticion() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void weakComparisonIgnoresTheWeakPrefix() {
+        assertThat(ETags.matches("\"3.1\"", VERSION)).isTrue();
+        assertThat(ETags.matches("W/\"3.1\"", VERSION)).isTrue();
+        assertThat(ETags.matches("\"3.1\"", "W/" + VERSION)).isTrue();
+        assertThat(ETags.matches("\"3.2\"", VERSION)).isFalse();
+        assertThat(ETags.matches(null, VERSION)).isFalse();
+        assertThat(ETags.matches(" ", VERSION)).isFalse();
+    }
+
+    @Test
+    void strongComparisonRejectsWeakTags() {
+        assertThat(ETags.matchesStrong("\"3.1\"", VERSION)).isTrue();
+        assertThat(ETags.matchesStrong("W/\"3.1\"", VERSION)).isFalse();
+        assertThat(ETags.matchesStrong("\"3.1\"", "W/" + VERSION)).isFalse();
+        assertThat(ETags.matchesStrong("\"3.2\"", VERSION)).isFalse();
+        assertThat(ETags.matchesStrong(null, VERSION)).isFalse();
+        assertThat(ETags.matchesStrong("", VERSION)).isFalse();
+    }
+
+    @Test
+    void wildcardAndListsMatch() {
+        assertThat(ETags.matches("*", VERSION)).isTrue();
+        assertThat(ETags.matchesStrong("*", VERSION)).isTrue();
+        assertThat(ETags.matches("\"1.1\", W/\"3.1\" ,\"4.1\"", VERSION)).isTrue();
+        assertThat(ETags.matchesStrong("\"1.1\",  \"3.1\"", VERSION)).isTrue();
+        assertThat(ETags.matchesStrong("\"1.1\", W/\"3.1\"", VERSION)).isFalse();
+        assertThat(ETags.matches("\"1.1\", \"2.1\"", VERSION)).isFalse();
+    }
+
+    @Test
+    void representationAddsOrReplacesTheFormatSuffix() {
+        assertThat(ETags.representacion(VERSION, MediaType.APPLICATION_JSON)).isEqualTo("\"3.1\"");
+        assertThat(ETags.representacion(VERSION, null)).isEqualTo("\"3.1\"");
+        assertThat(ETags.representacion(VERSION, ETags.SMILE)).isEqualTo("\"3.1-smile\"");
+        assertThat(ETags.representacion(VERSION, MediaType.APPLICATION_CBOR)).isEqualTo("\"3.1-cbor\"");
+        assertThat(ETags.representacion("\"3.1-smile\"", MediaType.APPLICATION_CBOR)).isEqualTo("\"3.1-cbor\"");
+        assertThat(ETags.representacion("\"3.1-cbor\"", MediaType.APPLICATION_JSON)).isEqualTo("\"3.1\"");
+    }
+
+    @Test
+    void formatVariantsAreDistinctForCachingButEqualForWrites() {
+        String smile = ETags.representacion(VERSION, ETags.SMILE);
+
+        // Un 304 sobre If-None-Match solo vale para la misma codificación
+        assertThat(ETags.matches(smile, VERSION)).isFalse();
+        assertThat(ETags.matches(smile, smile)).isTrue();
+        // If-Match compara contra la versión, venga la etiqueta de JSON, Smile o CBOR
+        assertThat(ETags.matchesStrong(smile, VERSION)).isTrue();
+        assertThat(ETags.matchesStrong("\"3.1-cbor\"", VERSION)).isTrue();
+        assertThat(ETags.matchesStrong("W/" + smile, VERSION)).isFalse();
+    }
+
+    @Test
+    void negotiatedTagFollowsAccept() {
+        NegotiatedETags etags = negotiated(new ContentNegotiationManager());
+
+        assertThat(conAccept(etags, null)).isEqualTo("\"3.1\"");
+        assertThat(conAccept(etags, "*/*")).isEqualTo("\"3.1\"");
+        assertThat(conAccept(etags, "application/x-jackson-smile")).isEqualTo("\"3.1-smile\"");
+        assertThat(conAccept(etags, "application/cbor, application/json;q=0.5")).isEqualTo("\"3.1-cbor\"");
+        assertThat(conAccept(etags, "application/*;q=0.9, application/x-jackson-smile")).isEqualTo("\"3.1-smile\"");
+        assertThat(conAccept(etags, "text/html")).isEqualTo("\"3.1\"");
+    }
+
+    @Test
+    void withoutMvcTheTagIsJson() {
+        NegotiatedETags etags = new NegotiatedETags(new StaticListableBeanFactory().getBeanProvider(ContentNegotiationManager.class));
+
+        assertThat(etags.of(VERSION)).isEqualTo("\"3.1\"");
+        assertThat(conAccept(etags, "application/cbor")).isEqualTo("\"3.1\"");
+    }
+
+    @Test
+    void listingAnswersNotModifiedWithoutQuerying() {
+        NegotiatedETags etags = negotiated(new ContentNegotiationManager());
+
+        ResponseEntity<String> noModificado = etags.listado(VERSION, "W/\"3.1\"", () -> fail("no debería consultar"));
+        ResponseEntity<String> listado = etags.listado(VERSION, "\"2.1\"", () -> "listado");
+
+        assertThat(noModificado.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(noModificado.getHeaders().getETag()).isEqualTo(VERSION);
+        assertThat(listado.getBody()).isEqualTo("listado");
+        assertThat(listado.getHeaders().getETag()).isEqualTo(VERSION);
+    }
+
+    private static NegotiatedETags negotiated(ContentNegotiationManager manager) {
+        return new NegotiatedETags(new StaticListableBeanFactory(Map.of("mvcContentNegotiationManager", manager))
+                .getBeanProvider(ContentNegotiationManager.class));
+    }
+
+    private static String conAccept(NegotiatedETags etags, String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/productos");
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return etags.of(VERSION);
+    }
+}